@@ -0,0 +1,123 @@
+package com.gin.benchmark;
+
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.entity.GalleryPage;
+import com.gin.entity.ResponseContext;
+import com.gin.parser.JsoupPageParser;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试用的 HTML 样本
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 18:00
+ */
+public class Fixtures {
+    /**
+     * 8张图片的单页画廊
+     */
+    public static final String GALLERY_SMALL = "gallery-small";
+    /**
+     * 20页(400张图片)画廊的第一页
+     */
+    public static final String GALLERY_PAGE = "gallery-page";
+    /**
+     * 有原图链接的图片详情页
+     */
+    public static final String IMAGE_PAGE_ORIGINAL = "image-page-original";
+    /**
+     * 没有原图链接的图片详情页
+     */
+    public static final String IMAGE_PAGE_NO_ORIGINAL = "image-page-no-original";
+
+    public static final String GALLERY_URL = "https://exhentai.org/g/2500001/a1b2c3d4e5/";
+    public static final String IMAGE_PAGE_URL = "https://exhentai.org/s/0a1b2c3d4e/2500001-2";
+    private static final MediaType HTML = MediaType.get("text/html; charset=UTF-8");
+
+    /**
+     * 读取样本
+     * @param name 名称
+     * @return 内容
+     */
+    public static byte[] load(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name + ".html")) {
+            if (in == null) {
+                throw new IllegalArgumentException("样本不存在: " + name);
+            }
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 用样本构造一个尚未读取的响应
+     * @param url  地址
+     * @param html 内容
+     * @return 响应上下文
+     */
+    public static ResponseContext context(String url, byte[] html) {
+        return new ResponseContext(response(url, html));
+    }
+
+    /**
+     * 用样本构造一个响应
+     * @param url  地址
+     * @param html 内容
+     * @return 响应
+     */
+    public static Response response(String url, byte[] html) {
+        return new Response.Builder()
+                .request(new Request.Builder().url(url).build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(html, HTML))
+                .build();
+    }
+
+    /**
+     * 由 gallery-page 样本构造一个画廊的所有页, 每页20张图片, 顺序打乱
+     * @param pages 页数
+     * @return 画廊页
+     */
+    public static List<GalleryPage> galleryPages(int pages) {
+        final byte[] html = load(GALLERY_PAGE);
+        final List<GalleryPage> list = new ArrayList<>(pages);
+        for (int p = 0; p < pages; p++) {
+            final GalleryPage page;
+            try {
+                page = new JsoupPageParser().parseGalleryPage(context(GALLERY_URL, html));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            page.setPage(p + 1);
+            page.setMaxPages(pages);
+            for (GalleryImageThumbnail thumbnail : page.getThumbnails()) {
+                thumbnail.setIndex(thumbnail.getIndex() + p * page.getThumbnails().size());
+            }
+            list.add(page);
+        }
+        Collections.shuffle(list, new Random(42));
+        return list;
+    }
+}
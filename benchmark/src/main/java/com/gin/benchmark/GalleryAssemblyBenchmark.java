@@ -0,0 +1,40 @@
+package com.gin.benchmark;
+
+import com.gin.entity.Gallery;
+import com.gin.entity.GalleryPage;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 由乱序的画廊页组装画廊(排序 + 合并缩略图)
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 18:25
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GalleryAssemblyBenchmark {
+    /**
+     * 页数: 1页(20张), 20页(400张), 100页(2000张)
+     */
+    @Param({"1", "20", "100"})
+    int pages;
+
+    List<GalleryPage> galleryPages;
+
+    @Setup
+    public void setup() {
+        galleryPages = Fixtures.galleryPages(pages);
+    }
+
+    @Benchmark
+    public Gallery gallery() {
+        return new Gallery(galleryPages);
+    }
+}
@@ -0,0 +1,73 @@
+package com.gin.benchmark;
+
+import com.gin.entity.GalleryImagePage;
+import com.gin.entity.GalleryPage;
+import com.gin.parser.JsoupPageParser;
+import com.gin.parser.PageParser;
+import com.gin.parser.StreamingPageParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 画廊页和图片详情页的解析: jsoup Document 与流式解析. 两类页面的样本分别作为参数, 互不交叉
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 18:10
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageParserBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class GalleryState {
+        @Param({"jsoup", "streaming"})
+        String parser;
+        @Param({Fixtures.GALLERY_SMALL, Fixtures.GALLERY_PAGE})
+        String galleryFixture;
+
+        PageParser pageParser;
+        byte[] html;
+
+        @Setup
+        public void setup() {
+            pageParser = createParser(parser);
+            html = Fixtures.load(galleryFixture);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ImageState {
+        @Param({"jsoup", "streaming"})
+        String parser;
+        @Param({Fixtures.IMAGE_PAGE_ORIGINAL, Fixtures.IMAGE_PAGE_NO_ORIGINAL})
+        String imageFixture;
+
+        PageParser pageParser;
+        byte[] html;
+
+        @Setup
+        public void setup() {
+            pageParser = createParser(parser);
+            html = Fixtures.load(imageFixture);
+        }
+    }
+
+    @Benchmark
+    public GalleryPage galleryPage(GalleryState state) throws IOException {
+        return state.pageParser.parseGalleryPage(Fixtures.context(Fixtures.GALLERY_URL, state.html));
+    }
+
+    @Benchmark
+    public GalleryImagePage imagePage(ImageState state) throws IOException {
+        return state.pageParser.parseImagePage(Fixtures.context(Fixtures.IMAGE_PAGE_URL, state.html));
+    }
+
+    private static PageParser createParser(String parser) {
+        return "jsoup".equals(parser) ? new JsoupPageParser() : new StreamingPageParser();
+    }
+}
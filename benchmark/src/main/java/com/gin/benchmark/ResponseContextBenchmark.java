@@ -0,0 +1,50 @@
+package com.gin.benchmark;
+
+import com.gin.entity.ResponseContext;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应体的读取和解析
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 18:15
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseContextBenchmark {
+    @Param({Fixtures.GALLERY_SMALL, Fixtures.GALLERY_PAGE})
+    String fixture;
+
+    byte[] html;
+
+    @Setup
+    public void setup() {
+        html = Fixtures.load(fixture);
+    }
+
+    @Benchmark
+    public Document document() throws IOException {
+        return Fixtures.context(Fixtures.GALLERY_URL, html).getDocument();
+    }
+
+    @Benchmark
+    public String bodyString() throws IOException {
+        return Fixtures.context(Fixtures.GALLERY_URL, html).getBodyString();
+    }
+
+    /**
+     * 只读响应头, 立即关闭响应体
+     */
+    @Benchmark
+    public String headerOnly() {
+        return ResponseContext.headerOnly(Fixtures.response(Fixtures.GALLERY_URL, html)).getUrl();
+    }
+}
@@ -0,0 +1,53 @@
+package com.gin.benchmark;
+
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.utils.GalleryIdTag;
+import org.jsoup.Jsoup;
+import org.jsoup.select.Elements;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 缩略图的构造(每个缩略图一次正则匹配) 和 画廊ID/TAG的解析
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 18:20
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThumbnailBenchmark {
+    Elements elements;
+
+    @Setup
+    public void setup() {
+        final String html = new String(Fixtures.load(Fixtures.GALLERY_PAGE), StandardCharsets.UTF_8);
+        elements = Jsoup.parse(html).getElementsByClass("gdtl");
+    }
+
+    /**
+     * 一页(20个)缩略图
+     */
+    @Benchmark
+    public void thumbnails(Blackhole blackhole) {
+        for (int i = 0; i < elements.size(); i++) {
+            blackhole.consume(new GalleryImageThumbnail(elements.get(i)));
+        }
+    }
+
+    @Benchmark
+    public GalleryIdTag galleryIdTag() {
+        return new GalleryIdTag(Fixtures.GALLERY_URL + "?p=3");
+    }
+
+    @Benchmark
+    public int page() {
+        return GalleryIdTag.parsePage(Fixtures.GALLERY_URL + "?p=3");
+    }
+}
@@ -0,0 +1,60 @@
+package com.gin.api;
+
+import com.gin.utils.FutureUtils;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 一组可以一起取消的请求. 记录每一次尝试的 future, 取消时同时取消进行中的请求;
+ * 取消后不再发起新的请求(包括重试)
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 12:10
+ */
+public class CallGroup {
+    private final Set<CompletableFuture<?>> inFlight = ConcurrentHashMap.newKeySet();
+    private volatile boolean cancelled;
+
+    /**
+     * 发起一次请求并记录, 已取消时不再发起
+     * @param request 发起请求, 返回的 future 取消时应同时取消请求
+     * @return future, 已取消时以 {@link CancellationException} 结束
+     */
+    public <T> CompletableFuture<T> track(Supplier<CompletableFuture<T>> request) {
+        if (cancelled) {
+            return FutureUtils.failed(new CancellationException("请求已取消"));
+        }
+        final CompletableFuture<T> future = request.get();
+        inFlight.add(future);
+        future.whenComplete((t, e) -> inFlight.remove(future));
+        // 与 cancel 并发时, 至少一方会取消该请求
+        if (cancelled) {
+            future.cancel(false);
+        }
+        return future;
+    }
+
+    /**
+     * 取消进行中的请求, 之后不再发起新的请求
+     */
+    public void cancel() {
+        cancelled = true;
+        inFlight.forEach(f -> f.cancel(false));
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 在组中发起请求, 组为 null 时直接发起
+     */
+    static <T> CompletableFuture<T> track(@Nullable CallGroup group, Supplier<CompletableFuture<T>> request) {
+        return group != null ? group.track(request) : request.get();
+    }
+}
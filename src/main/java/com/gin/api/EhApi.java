@@ -1,14 +1,51 @@
 package com.gin.api;
 
+import com.gin.cache.ExpiringCache;
+import com.gin.cache.GalleryPageCache;
+import com.gin.callback.ResponseHandler;
 import com.gin.entity.*;
+import com.gin.exception.ImageLimitException;
+import com.gin.identity.Identity;
+import com.gin.identity.IdentityPool;
+import com.gin.journal.CrawlJournal;
+import com.gin.limiter.Priority;
+import com.gin.metrics.EhMetrics;
+import com.gin.parser.JsoupPageParser;
+import com.gin.parser.PageParser;
+import com.gin.parser.StreamingPageParser;
+import com.gin.quota.ImageQuotaGovernor;
+import com.gin.utils.FutureUtils;
+import com.gin.utils.GalleryIdTag;
+import com.gin.utils.JsonParser;
+import com.gin.utils.OrderedEmitter;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
 import org.jetbrains.annotations.Nullable;
 import org.jsoup.select.Elements;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import static com.gin.entity.GalleryImagePage.ERROR_509;
@@ -21,47 +58,429 @@ import static com.gin.entity.GalleryImagePage.ERROR_509;
  */
 @RequiredArgsConstructor
 public class EhApi {
+    /**
+     * 批量请求时默认同时处理的数量
+     */
+    public static final int DEFAULT_CONCURRENCY = 5;
+    /**
+     * 个人主页, 显示图像限额
+     */
+    public static final String HOME_URL = "https://e-hentai.org/home.php";
+    /**
+     * JSON api
+     */
+    public static final String API_URL = "https://api.e-hentai.org/api.php";
+    /**
+     * gdata 方法每次最多查询的画廊数
+     */
+    public static final int GDATA_BATCH_SIZE = 25;
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    @Getter
     private final EhClient client;
     /**
-     * 异步请求一个画廊的所有页
+     * 页面解析器, 默认使用 jsoup 构建 Document 解析, 批量抓取时可使用 {@link StreamingPageParser}
+     */
+    @Getter
+    @Setter
+    private PageParser parser = new JsoupPageParser();
+
+    /**
+     * 画廊页缓存, 为 null 时不使用缓存
+     */
+    @Getter
+    @Setter
+    private GalleryPageCache pageCache;
+
+    /**
+     * 原图地址缓存(图片详情页地址 -> 原图地址), 为 null 时不使用缓存
+     */
+    @Getter
+    @Setter
+    private ExpiringCache<String, String> originalUrlCache;
+    /**
+     * 进行中的交互原图地址查询, 不与批量查询共享, 以免排在批量请求之后
+     */
+    private final Map<String, CompletableFuture<String>> interactiveResolving = new ConcurrentHashMap<>();
+    /**
+     * 原图地址 -> 取得该地址的身份. 原图地址属于取得它的账号, 下载时使用同一身份
+     */
+    private final ExpiringCache<String, Identity> originalUrlIdentities = new ExpiringCache<>(10_000, TimeUnit.HOURS.toMillis(1));
+
+    /**
+     * 图像限额控制, 为 null 时不控制
+     */
+    @Getter
+    @Setter
+    private ImageQuotaGovernor quotaGovernor;
+
+    /**
+     * 抓取日志, 设置后已记录且未过期的画廊页和原图地址不再请求, 新完成的写入日志
+     */
+    @Getter
+    @Setter
+    private CrawlJournal journal;
+
+    /**
+     * JSON api 地址, 测试时可指向本地服务
+     */
+    @Getter
+    @Setter
+    private String apiUrl = API_URL;
+
+    public EhApi(EhClient client, PageParser parser) {
+        this.client = client;
+        this.parser = parser;
+    }
+
+    /**
+     * 异步请求一个画廊的所有页, 阻塞到完成
      * @param url 画廊任意页链接
-     * @return map
+     * @return 画廊
+     * @throws IOException 有分页在重试后仍然失败
      */
     public Gallery getGallery(String url) throws InterruptedException, IOException {
-        final GalleryPage page = getGalleryPage(url);
-        // 所有分页链接
-        final List<String> pages = page.getAllPages();
-        // 返回结果
-        final HashMap<String, GalleryPage> resultMap = new HashMap<>(pages.size());
-        // 放入第一页
-        resultMap.put(url, page);
-        // 缺少的页
-        List<String> lackPages = pages.stream().filter(u -> !resultMap.containsKey(u)).collect(Collectors.toList());
-        // 当还有缺少页时，继续请求
-        if  (lackPages.size() > 0) {
-            // 请求缺少页, 放入返回结果
-            resultMap.putAll(getGalleryPage(lackPages));
-        }
-        // 将所有数据组合为一个对象
-        return new Gallery(resultMap.values());
-    }
-
-    /**
-     * 异步请求多个画廊页, 阻塞到所有请求成功
+        return FutureUtils.await(getGalleryAsync(url));
+    }
+
+    /**
+     * 异步请求一个画廊的所有页, 阻塞到完成或到达截止时间
+     * @param url     画廊任意页链接
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @return 画廊
+     * @throws IOException 有分页在重试后仍然失败, 或到达截止时间(cause 为 {@link TimeoutException})
+     */
+    public Gallery getGallery(String url, long timeout) throws InterruptedException, IOException {
+        return FutureUtils.await(getGalleryAsync(url, timeout));
+    }
+
+    /**
+     * 异步请求一个画廊的所有页, 不阻塞
+     * @param url 画廊任意页链接
+     * @return future
+     */
+    public CompletableFuture<Gallery> getGalleryAsync(String url) {
+        return getGalleryAsync(url, 0);
+    }
+
+    /**
+     * 异步请求一个画廊的所有页, 有截止时间. 到达截止时间时取消进行中的请求, 以 {@link TimeoutException} 结束
+     * @param url     画廊任意页链接
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @return future
+     */
+    public CompletableFuture<Gallery> getGalleryAsync(String url, long timeout) {
+        return withDeadline(timeout, group -> getGalleryAsync(url, group));
+    }
+
+    private CompletableFuture<Gallery> getGalleryAsync(String url, @Nullable CallGroup group) {
+        return getGalleryPageAsync(url, group).thenCompose(page -> {
+            // 缺少的页
+            final List<String> lackPages = page.getAllPages().stream().filter(u -> !u.equals(url)).collect(Collectors.toList());
+            return getGalleryPageAsync(lackPages, 0, group).thenApply(result -> {
+                if (!result.isSuccess()) {
+                    throw new CompletionException(new IOException("画廊页请求失败: " + result.getFailures().keySet()));
+                }
+                final List<GalleryPage> list = new ArrayList<>(result.getSuccesses().values());
+                // 放入第一页
+                list.add(page);
+                // 将所有数据组合为一个对象
+                return new Gallery(list);
+            });
+        });
+    }
+
+    /**
+     * 增量刷新一个已请求过的画廊, 阻塞到完成
+     * @param gallery 已有的画廊
+     * @return 刷新后的画廊(新对象)
+     * @throws IOException 有分页在重试后仍然失败
+     */
+    public Gallery refreshGallery(Gallery gallery) throws InterruptedException, IOException {
+        return FutureUtils.await(refreshGalleryAsync(gallery));
+    }
+
+    /**
+     * 增量刷新一个已请求过的画廊, 阻塞到完成或到达截止时间
+     * @param gallery 已有的画廊
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @return 刷新后的画廊(新对象)
+     * @throws IOException 有分页在重试后仍然失败, 或到达截止时间(cause 为 {@link TimeoutException})
+     */
+    public Gallery refreshGallery(Gallery gallery, long timeout) throws InterruptedException, IOException {
+        return FutureUtils.await(refreshGalleryAsync(gallery, timeout));
+    }
+
+    /**
+     * 增量刷新一个已请求过的画廊, 不使用缓存.
+     * <p>先请求第一页: 第一页的图片与原有的一致且页数没有减少时, 只请求原来的最后一页和新增的页,
+     * 与原有的其他页合并; 否则视为画廊已变化, 请求所有页. 中间的页假定没有变化</p>
+     * @param gallery 已有的画廊
+     * @return future, 刷新后的画廊(新对象)
+     */
+    public CompletableFuture<Gallery> refreshGalleryAsync(Gallery gallery) {
+        return refreshGalleryAsync(gallery, 0);
+    }
+
+    /**
+     * 增量刷新一个已请求过的画廊, 有截止时间. 到达截止时间时取消进行中的请求, 以 {@link TimeoutException} 结束
+     * @param gallery 已有的画廊
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @return future, 刷新后的画廊(新对象)
+     */
+    public CompletableFuture<Gallery> refreshGalleryAsync(Gallery gallery, long timeout) {
+        return withDeadline(timeout, group -> refreshGalleryAsync(gallery, group));
+    }
+
+    private CompletableFuture<Gallery> refreshGalleryAsync(Gallery gallery, @Nullable CallGroup group) {
+        final int oldMaxPages = Math.max(1, gallery.getMaxPages());
+        final String firstUrl = Gallery.getAllPages(gallery.getId(), gallery.getTag(), 1).get(0);
+        return fetchGalleryPagesAsync(Collections.singletonList(firstUrl), group).thenCompose(first -> {
+            final GalleryPage page = first.get(0);
+            final List<GalleryImageThumbnail> oldThumbnails = gallery.getThumbnails() != null ? gallery.getThumbnails() : new ArrayList<>();
+            final List<GalleryImageThumbnail> firstThumbnails = page.getThumbnails();
+            final boolean unchanged = page.getMaxPages() >= oldMaxPages && oldMaxPages > 1
+                    && isSameImages(oldThumbnails, firstThumbnails);
+            // 保留的原有图片数, 以及需要重新请求的第一页
+            final int keep = unchanged ? firstThumbnails.size() * (oldMaxPages - 1) : 0;
+            final int from = unchanged ? oldMaxPages - 1 : 1;
+            final List<String> urls = page.getAllPages();
+            return fetchGalleryPagesAsync(urls.subList(Math.min(from, urls.size()), urls.size()), group).thenApply(pages -> {
+                final List<GalleryImageThumbnail> thumbnails = new ArrayList<>();
+                if (unchanged) {
+                    thumbnails.addAll(oldThumbnails.subList(0, Math.min(keep, oldThumbnails.size())));
+                } else {
+                    thumbnails.addAll(firstThumbnails);
+                }
+                pages.forEach(p -> thumbnails.addAll(p.getThumbnails()));
+                final Gallery refreshed = new Gallery();
+                refreshed.setThumbnails(thumbnails);
+                refreshed.setTitle(page.getTitle());
+                refreshed.setTitleJp(page.getTitleJp());
+                refreshed.setMaxPages(page.getMaxPages());
+                refreshed.setId(page.getId());
+                refreshed.setTag(page.getTag());
+                return refreshed;
+            });
+        });
+    }
+
+    /**
+     * 不使用缓存请求多个画廊页, 结果写入缓存
+     * @param urls  画廊页地址
+     * @param group 请求组, 可为 null
+     * @return future, 顺序与参数一致; 有分页在重试后仍然失败时以异常结束
+     */
+    private CompletableFuture<List<GalleryPage>> fetchGalleryPagesAsync(List<String> urls, @Nullable CallGroup group) {
+        return client.getContextAsync(urls, this::parseGalleryPage, 0, group).thenApply(result -> {
+            if (!result.isSuccess()) {
+                throw new CompletionException(new IOException("画廊页请求失败: " + result.getFailures().keySet()));
+            }
+            result.getSuccesses().forEach(this::cachePage);
+            return urls.stream().map(result.getSuccesses()::get).collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * 在截止时间内完成任务, 到达截止时间时取消任务的请求组, 以 {@link TimeoutException} 结束
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @param task    在请求组中发起请求的任务
+     * @return future
+     */
+    private static <T> CompletableFuture<T> withDeadline(long timeout, Function<CallGroup, CompletableFuture<T>> task) {
+        if (timeout <= 0) {
+            return task.apply(null);
+        }
+        final CallGroup group = new CallGroup();
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        final CompletableFuture<Void> timer = FutureUtils.delay(timeout);
+        task.apply(group).whenComplete((t, e) -> {
+            // 提前完成时取消计时
+            timer.cancel(false);
+            if (e != null) {
+                result.completeExceptionally(FutureUtils.unwrap(e));
+            } else {
+                result.complete(t);
+            }
+        });
+        timer.thenRun(() -> {
+            if (result.completeExceptionally(new TimeoutException("已到达截止时间"))) {
+                group.cancel();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 原有图片的开头是否与新的第一页一致
+     */
+    private static boolean isSameImages(List<GalleryImageThumbnail> old, List<GalleryImageThumbnail> first) {
+        if (first.isEmpty() || old.size() < first.size()) {
+            return false;
+        }
+        for (int i = 0; i < first.size(); i++) {
+            if (!Objects.equals(old.get(i).getImagePageUrl(), first.get(i).getImagePageUrl())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 批量请求画廊, 阻塞到全部完成
+     * @param urls 画廊链接, 同一画廊的不同链接只请求一次
+     * @return 结果, 顺序与参数一致(已去重)
+     */
+    public List<GalleryResult> getGalleries(Collection<String> urls) throws InterruptedException, IOException {
+        return FutureUtils.await(getGalleriesAsync(urls, DEFAULT_CONCURRENCY, null));
+    }
+
+    /**
+     * 批量请求画廊, 阻塞到全部完成或到达截止时间
+     * @param urls    画廊链接, 同一画廊的不同链接只请求一次
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @return 结果, 顺序与参数一致(已去重); 未完成的画廊以 {@link TimeoutException} 记录
+     */
+    public List<GalleryResult> getGalleries(Collection<String> urls, long timeout) throws InterruptedException, IOException {
+        return FutureUtils.await(getGalleriesAsync(urls, DEFAULT_CONCURRENCY, null, timeout));
+    }
+
+    /**
+     * 批量异步请求画廊. 所有画廊的分页共用 concurrency 个请求名额, 按画廊轮流分配;
+     * 单个画廊失败记录在结果中, 不影响其他画廊
+     * @param urls        画廊链接, 同一画廊的不同链接只请求一次
+     * @param concurrency 同时进行的请求数
+     * @param consumer    每个画廊完成时接收结果, 按完成顺序, 可为 null
+     * @return future, 结果顺序与参数一致(已去重)
+     */
+    public CompletableFuture<List<GalleryResult>> getGalleriesAsync(Collection<String> urls, int concurrency,
+                                                                    @Nullable Consumer<GalleryResult> consumer) {
+        return getGalleriesAsync(urls, concurrency, consumer, 0);
+    }
+
+    /**
+     * 批量异步请求画廊, 有截止时间. 到达截止时间时不再请求新的分页, 取消进行中的请求,
+     * 未完成的画廊以 {@link TimeoutException} 记录在结果中
+     * @param urls        画廊链接, 同一画廊的不同链接只请求一次
+     * @param concurrency 同时进行的请求数
+     * @param consumer    每个画廊完成时接收结果, 按完成顺序, 可为 null
+     * @param timeout     截止时间(毫秒), 不大于0时不限制
+     * @return future, 结果顺序与参数一致(已去重)
+     */
+    public CompletableFuture<List<GalleryResult>> getGalleriesAsync(Collection<String> urls, int concurrency,
+                                                                    @Nullable Consumer<GalleryResult> consumer, long timeout) {
+        return new GalleryCrawler(this, urls, concurrency, consumer).start(timeout);
+    }
+
+    /**
+     * 逐页请求一个画廊, 每收到一页即可处理, 无需等待整个画廊
+     * @param url 画廊任意页链接
+     * @return 迭代器, 不再使用时关闭
+     */
+    public GalleryPageIterator streamGallery(String url) {
+        return streamGallery(url, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * 逐页请求一个画廊, 每收到一页即可处理, 无需等待整个画廊
+     * @param url      画廊任意页链接
+     * @param prefetch 最多提前请求的页数
+     * @return 迭代器, 不再使用时关闭
+     */
+    public GalleryPageIterator streamGallery(String url, int prefetch) {
+        return new GalleryPageIterator(this, url, prefetch);
+    }
+
+    /**
+     * 异步请求一个画廊页, 优先使用缓存
+     * @param url url
+     * @return future
+     */
+    public CompletableFuture<GalleryPage> getGalleryPageAsync(String url) {
+        return getGalleryPageAsync(url, null);
+    }
+
+    private CompletableFuture<GalleryPage> getGalleryPageAsync(String url, @Nullable CallGroup group) {
+        final GalleryPage cached = getCachedPage(url);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CallGroup.track(group, () -> client.getContextAsync(url, this::parseGalleryPage)).thenApply(page -> cachePage(url, page));
+    }
+
+    /**
+     * 异步请求多个画廊页, 优先使用缓存, 只请求未命中的页
      * @param urls 画廊页地址
-     * @return 画廊对象
+     * @return future
+     */
+    public CompletableFuture<BatchResult<GalleryPage>> getGalleryPageAsync(Collection<String> urls) {
+        return getGalleryPageAsync(urls, 0);
+    }
+
+    /**
+     * 异步请求多个画廊页, 优先使用缓存, 只请求未命中的页. 到达截止时间时返回已有的结果
+     * @param urls    画廊页地址
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @return future, 未完成的地址记录在 missing 中
+     */
+    public CompletableFuture<BatchResult<GalleryPage>> getGalleryPageAsync(Collection<String> urls, long timeout) {
+        return getGalleryPageAsync(urls, timeout, null);
+    }
+
+    /**
+     * 异步请求多个画廊页, 请求记录在组中
+     * @param urls    画廊页地址
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @param group   请求组, 可为 null
+     * @return future, 未完成的地址记录在 missing 中
+     */
+    CompletableFuture<BatchResult<GalleryPage>> getGalleryPageAsync(Collection<String> urls, long timeout, @Nullable CallGroup group) {
+        final Map<String, GalleryPage> cached = new HashMap<>();
+        if (pageCache != null || journal != null) {
+            urls.forEach(url -> {
+                final GalleryPage page = getCachedPage(url);
+                if (page != null) {
+                    cached.put(url, page);
+                }
+            });
+        }
+        final List<String> lackUrls = urls.stream().filter(u -> !cached.containsKey(u)).collect(Collectors.toList());
+        return client.getContextAsync(lackUrls, this::parseGalleryPage, timeout, group).thenApply(result -> {
+            result.getSuccesses().forEach(this::cachePage);
+            result.getSuccesses().putAll(cached);
+            return result;
+        });
+    }
+
+    /**
+     * 异步请求多个画廊页, 阻塞到所有请求成功或达到重试上限
+     * @param urls 画廊页地址
+     * @return 请求结果
+     */
+    public BatchResult<GalleryPage> getGalleryPage(Collection<String> urls) throws InterruptedException, IOException {
+        return FutureUtils.await(getGalleryPageAsync(urls));
+    }
+
+    /**
+     * 异步请求多个画廊页, 阻塞到所有请求完成或到达截止时间
+     * @param urls    画廊页地址
+     * @param timeout 截止时间(毫秒)
+     * @return 请求结果, 未完成的地址记录在 missing 中
      */
-    public HashMap<String, GalleryPage> getGalleryPage(Collection<String> urls) throws InterruptedException {
-        return client.getContext(urls, context -> new GalleryPage(context.getDocument()));
+    public BatchResult<GalleryPage> getGalleryPage(Collection<String> urls, long timeout) throws InterruptedException, IOException {
+        return FutureUtils.await(getGalleryPageAsync(urls, timeout));
     }
 
     /**
-     * 同步请求一个画廊页
+     * 同步请求一个画廊页, 优先使用缓存
      * @param url url
      * @return 画廊页
      */
     public GalleryPage getGalleryPage(String url) throws IOException {
-        return new GalleryPage(client.getContext(url).getDocument());
+        final GalleryPage cached = getCachedPage(url);
+        if (cached != null) {
+            return cached;
+        }
+        return cachePage(url, parseGalleryPage(client.getContext(url)));
     }
 
     /**
@@ -70,27 +489,425 @@ public class EhApi {
      * @return 图片原址地址
      */
     public String getOriginalUrl(String imagePageUrl) throws IOException {
-        final GalleryImagePage imagePage = new GalleryImagePage(client.getContext(imagePageUrl).getDocument());
-        if (ERROR_509.equals(imagePage.getSrc())) {
-            throw new IOException("509错误,请切换其他可用线路");
+        // 与异步请求相同: 使用缓存和限额, 响应及时关闭, 遇到509时换其他身份重试
+        try {
+            return FutureUtils.await(getOriginalUrlAsync(imagePageUrl));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * 异步请求原始图片地址, 设置了缓存时优先使用缓存
+     * @param imagePageUrl 图片详情页地址
+     * @return future
+     */
+    public CompletableFuture<String> getOriginalUrlAsync(String imagePageUrl) {
+        return getOriginalUrlAsync(imagePageUrl, Priority.INTERACTIVE);
+    }
+
+    /**
+     * 以指定优先级异步请求原始图片地址, 设置了缓存时优先使用缓存.
+     * 交互查询不加入进行中的批量查询, 而是单独查询(详情页请求仍与批量查询合并并提升为交互请求); 批量查询可以加入进行中的交互查询
+     * @param imagePageUrl 图片详情页地址
+     * @param priority     优先级
+     * @return future
+     */
+    public CompletableFuture<String> getOriginalUrlAsync(String imagePageUrl, Priority priority) {
+        return getOriginalUrlAsync(imagePageUrl, priority, null);
+    }
+
+    /**
+     * 异步请求原始图片地址, 只有本次查询独有的请求记录在组中; 经缓存与其他调用方共享的查询不受组的取消影响
+     */
+    private CompletableFuture<String> getOriginalUrlAsync(String imagePageUrl, Priority priority, @Nullable CallGroup group) {
+        final String recorded = journal != null ? journal.getOriginalUrl(imagePageUrl) : null;
+        if (recorded != null) {
+            return CompletableFuture.completedFuture(recorded);
+        }
+        final CompletableFuture<String> future;
+        if (originalUrlCache == null) {
+            future = requestOriginalUrlAsync(imagePageUrl, priority, group);
+        } else if (priority == Priority.INTERACTIVE) {
+            final String cached = originalUrlCache.getIfPresent(imagePageUrl);
+            future = cached != null ? CompletableFuture.completedFuture(cached) : resolveInteractive(imagePageUrl);
+        } else {
+            final CompletableFuture<String> interactive = interactiveResolving.get(imagePageUrl);
+            future = interactive != null ? interactive.thenApply(url -> url)
+                    : originalUrlCache.get(imagePageUrl, url -> requestOriginalUrlAsync(url, priority, null));
+        }
+        return journal != null ? future.thenApply(url -> recordOriginalUrl(imagePageUrl, url)) : future;
+    }
+
+    /**
+     * 交互查询原图地址, 与同时进行的交互查询合并, 结果写入缓存
+     * @param imagePageUrl 图片详情页地址
+     * @return future, 取消不影响其他调用方
+     */
+    private CompletableFuture<String> resolveInteractive(String imagePageUrl) {
+        final CompletableFuture<String> created = new CompletableFuture<>();
+        final CompletableFuture<String> inFlight = interactiveResolving.putIfAbsent(imagePageUrl, created);
+        if (inFlight != null) {
+            return inFlight.thenApply(url -> url);
+        }
+        created.whenComplete((url, e) -> {
+            // 先写入缓存再移除, 之后的调用方不会错过结果
+            if (url != null) {
+                originalUrlCache.put(imagePageUrl, url);
+            }
+            interactiveResolving.remove(imagePageUrl, created);
+        });
+        requestOriginalUrlAsync(imagePageUrl, Priority.INTERACTIVE, null).whenComplete((url, e) -> {
+            if (e != null) {
+                created.completeExceptionally(FutureUtils.unwrap(e));
+            } else {
+                created.complete(url);
+            }
+        });
+        return created.thenApply(url -> url);
+    }
+
+    /**
+     * 取得原图地址的身份, 下载该地址时应使用这个身份
+     * @param originalUrl 原图地址
+     * @return 身份, 未知时(如来自日志或已过期)为 null
+     */
+    @Nullable
+    public Identity getOriginalUrlIdentity(String originalUrl) {
+        return originalUrl != null ? originalUrlIdentities.getIfPresent(originalUrl) : null;
+    }
+
+    private void recordIdentity(String originalUrl, Identity identity) {
+        if (originalUrl != null && identity != null) {
+            originalUrlIdentities.put(originalUrl, identity);
+        }
+    }
+
+    private String recordOriginalUrl(String imagePageUrl, String originalUrl) {
+        if (journal != null && originalUrl != null) {
+            journal.recordOriginalUrl(imagePageUrl, originalUrl);
+        }
+        return originalUrl;
+    }
+
+    /**
+     * 异步请求原始图片地址, 不使用缓存
+     * @param imagePageUrl 图片详情页地址
+     * @param priority     优先级
+     * @param group        请求组, 可为 null
+     * @return future
+     */
+    private CompletableFuture<String> requestOriginalUrlAsync(String imagePageUrl, Priority priority, @Nullable CallGroup group) {
+        if (quotaGovernor != null) {
+            return quotaGovernor.acquire(quotaGovernor.getResolveCost())
+                    .thenCompose(v -> requestOriginalUrlWithoutQuotaAsync(imagePageUrl, priority, group))
+                    .whenComplete((url, e) -> {
+                        // 还有可用身份时不暂停
+                        if (e != null && FutureUtils.unwrap(e) instanceof ImageLimitException
+                                && !client.getIdentityPool().hasAvailable()) {
+                            quotaGovernor.onLimitReached();
+                        }
+                    });
+        }
+        return requestOriginalUrlWithoutQuotaAsync(imagePageUrl, priority, group);
+    }
+
+    /**
+     * 请求原图地址, 遇到509时换其他可用身份重试, 最多尝试身份数次
+     */
+    private CompletableFuture<String> requestOriginalUrlWithoutQuotaAsync(String imagePageUrl, Priority priority, @Nullable CallGroup group) {
+        return requestOriginalUrlWithoutQuotaAsync(imagePageUrl, priority, group, client.getIdentityPool().size());
+    }
+
+    private CompletableFuture<String> requestOriginalUrlWithoutQuotaAsync(String imagePageUrl, Priority priority, @Nullable CallGroup group,
+                                                                          int attempts) {
+        final AtomicReference<Identity> identity = new AtomicReference<>();
+        return CallGroup.track(group, () -> client.getContextAsync(imagePageUrl, context -> {
+            identity.set(context.getIdentity());
+            return parseImagePage(context);
+        }, priority)).thenCompose(imagePage -> {
+            if (imagePage.hasOriginalUrl()) {
+                // 有原图地址，用同一身份请求原图地址
+                return CallGroup.track(group, () -> client.getContextAsync(identity.get(), imagePage.getRedirectUrl(),
+                        ResponseHandler.headerOnly(ResponseContext::getRedirectUrl), priority));
+            } else {
+                // 无原图地址，返回预览图地址
+                return CompletableFuture.completedFuture(imagePage.getSrc());
+            }
+        }).thenApply(url -> {
+            recordIdentity(url, identity.get());
+            return url;
+        }).handle((url, e) -> {
+            if (e != null && attempts > 1 && FutureUtils.unwrap(e) instanceof ImageLimitException
+                    && client.getIdentityPool().hasAvailable()) {
+                return requestOriginalUrlWithoutQuotaAsync(imagePageUrl, priority, group, attempts - 1);
+            }
+            return e != null ? FutureUtils.<String>failed(FutureUtils.unwrap(e)) : CompletableFuture.completedFuture(url);
+        }).thenCompose(f -> f);
+    }
+
+    /**
+     * 批量请求原始图片地址, 阻塞到全部完成
+     * @param imagePageUrls 图片详情页地址
+     * @return 结果, 顺序与参数一致
+     */
+    public List<OriginalUrlResult> getOriginalUrls(Collection<String> imagePageUrls) throws InterruptedException, IOException {
+        return FutureUtils.await(getOriginalUrlsAsync(imagePageUrls, DEFAULT_CONCURRENCY, null));
+    }
+
+    /**
+     * 批量请求原始图片地址, 阻塞到全部完成或到达截止时间
+     * @param imagePageUrls 图片详情页地址
+     * @param timeout       截止时间(毫秒), 不大于0时不限制
+     * @return 结果, 顺序与参数一致; 未完成的图片以 {@link TimeoutException} 记录
+     */
+    public List<OriginalUrlResult> getOriginalUrls(Collection<String> imagePageUrls, long timeout) throws InterruptedException, IOException {
+        return FutureUtils.await(getOriginalUrlsAsync(imagePageUrls, DEFAULT_CONCURRENCY, null, timeout));
+    }
+
+    /**
+     * 批量异步请求原始图片地址. 每张图片的两次请求依次进行, 同时处理的图片数不超过 concurrency;
+     * 单张图片失败(如509)记录在结果中, 不影响其他图片. 作为批量请求({@link Priority#BULK}), 让单个查询优先
+     * @param imagePageUrls 图片详情页地址
+     * @param concurrency   同时处理的图片数
+     * @param consumer      按顺序接收每个结果, 可为 null
+     * @return future, 结果顺序与参数一致
+     */
+    public CompletableFuture<List<OriginalUrlResult>> getOriginalUrlsAsync(Collection<String> imagePageUrls, int concurrency,
+                                                                           @Nullable Consumer<OriginalUrlResult> consumer) {
+        return getOriginalUrlsAsync(imagePageUrls, concurrency, consumer, 0);
+    }
+
+    /**
+     * 批量异步请求原始图片地址, 有截止时间. 到达截止时间时不再开始新的图片, 取消进行中的请求,
+     * 未完成的图片以 {@link TimeoutException} 记录在结果中. 设置了缓存时查询经缓存与其他调用方共享,
+     * 这些查询不取消, 继续完成后结果进入缓存
+     * @param imagePageUrls 图片详情页地址
+     * @param concurrency   同时处理的图片数
+     * @param consumer      按顺序接收每个结果, 可为 null
+     * @param timeout       截止时间(毫秒), 不大于0时不限制
+     * @return future, 结果顺序与参数一致
+     */
+    public CompletableFuture<List<OriginalUrlResult>> getOriginalUrlsAsync(Collection<String> imagePageUrls, int concurrency,
+                                                                           @Nullable Consumer<OriginalUrlResult> consumer, long timeout) {
+        final List<String> urls = new ArrayList<>(imagePageUrls);
+        final AtomicReferenceArray<OriginalUrlResult> results = new AtomicReferenceArray<>(urls.size());
+        final OrderedEmitter<OriginalUrlResult> emitter = new OrderedEmitter<>(consumer != null ? consumer : r -> {
+        });
+        final AtomicInteger cursor = new AtomicInteger();
+        final CallGroup group = timeout > 0 ? new CallGroup() : null;
+        final CompletableFuture<?>[] workers = new CompletableFuture[Math.max(1, Math.min(concurrency, urls.size()))];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = resolveNext(urls, cursor, results, emitter, group);
+        }
+        final CompletableFuture<List<OriginalUrlResult>> future = CompletableFuture.allOf(workers).thenApply(v -> toList(results));
+        if (timeout <= 0) {
+            return future;
+        }
+        final CompletableFuture<Void> timer = FutureUtils.delay(timeout);
+        // 提前完成时取消计时
+        future.whenComplete((list, e) -> timer.cancel(false));
+        final CompletableFuture<List<OriginalUrlResult>> deadline = timer.thenApply(v -> {
+            cursor.set(urls.size());
+            for (int i = 0; i < urls.size(); i++) {
+                setResult(results, emitter, new OriginalUrlResult(i, urls.get(i), null, null, new TimeoutException("已到达截止时间")));
+            }
+            // 先记为超时再取消, 取消引起的异常不会覆盖超时
+            group.cancel();
+            return toList(results);
+        });
+        return future.applyToEither(deadline, list -> list);
+    }
+
+    /**
+     * 一个处理位: 取下一张图片请求原图地址, 完成后继续取下一张, 直到全部取完
+     */
+    private CompletableFuture<Void> resolveNext(List<String> urls, AtomicInteger cursor, AtomicReferenceArray<OriginalUrlResult> results,
+                                                OrderedEmitter<OriginalUrlResult> emitter, @Nullable CallGroup group) {
+        // 命中缓存时同步完成, 使用循环避免递归过深
+        while (true) {
+            final int index = cursor.getAndIncrement();
+            if (index >= urls.size()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            final String url = urls.get(index);
+            final CompletableFuture<Void> future = getOriginalUrlAsync(url, Priority.BULK, group).handle((originalUrl, e) -> {
+                setResult(results, emitter, new OriginalUrlResult(index, url, originalUrl, getOriginalUrlIdentity(originalUrl), e != null ? FutureUtils.unwrap(e) : null));
+                return null;
+            });
+            if (!future.isDone()) {
+                return future.thenCompose(v -> resolveNext(urls, cursor, results, emitter, group));
+            }
+        }
+    }
+
+    /**
+     * 记录一张图片的结果, 已有结果(如截止时已记为超时)时忽略
+     */
+    private static void setResult(AtomicReferenceArray<OriginalUrlResult> results, OrderedEmitter<OriginalUrlResult> emitter,
+                                  OriginalUrlResult result) {
+        if (results.compareAndSet(result.getIndex(), null, result)) {
+            emitter.put(result.getIndex(), result);
+        }
+    }
+
+    private static List<OriginalUrlResult> toList(AtomicReferenceArray<OriginalUrlResult> results) {
+        final List<OriginalUrlResult> list = new ArrayList<>(results.length());
+        for (int i = 0; i < results.length(); i++) {
+            list.add(results.get(i));
+        }
+        return list;
+    }
+
+    /**
+     * 通过 JSON api 批量请求画廊元数据, 阻塞到全部完成
+     * @param galleries 画廊id和tag, 可用 {@link GalleryIdTag#parse(String)} 从地址解析
+     * @return 元数据, 顺序与参数一致(已去重); id和tag不匹配的画廊 error 不为空
+     */
+    public List<GalleryMetadata> getMetadata(Collection<GalleryIdTag> galleries) throws InterruptedException, IOException {
+        return FutureUtils.await(getMetadataAsync(galleries));
+    }
+
+    /**
+     * 通过 JSON api 批量请求画廊元数据, 阻塞到全部完成或到达截止时间
+     * @param galleries 画廊id和tag
+     * @param timeout   截止时间(毫秒), 不大于0时不限制
+     * @return 元数据, 顺序与参数一致(已去重); 未完成的画廊 error 不为空
+     */
+    public List<GalleryMetadata> getMetadata(Collection<GalleryIdTag> galleries, long timeout) throws InterruptedException, IOException {
+        return FutureUtils.await(getMetadataAsync(galleries, timeout));
+    }
+
+    /**
+     * 通过 JSON api 批量请求画廊元数据, 每 {@value #GDATA_BATCH_SIZE} 个画廊一次请求
+     * @param galleries 画廊id和tag, 可用 {@link GalleryIdTag#parse(String)} 从地址解析
+     * @return future, 顺序与参数一致(已去重); 有批次在重试后仍然失败时以异常结束
+     */
+    public CompletableFuture<List<GalleryMetadata>> getMetadataAsync(Collection<GalleryIdTag> galleries) {
+        return getMetadataAsync(galleries, 0);
+    }
+
+    /**
+     * 通过 JSON api 批量请求画廊元数据, 有截止时间. 到达截止时间时取消未完成的批次的请求并停止重试,
+     * 其中的画廊以 error 为 "已到达截止时间" 的元数据记录在结果中
+     * @param galleries 画廊id和tag, 可用 {@link GalleryIdTag#parse(String)} 从地址解析
+     * @param timeout   截止时间(毫秒), 不大于0时不限制
+     * @return future, 顺序与参数一致(已去重); 截止前有批次在重试后仍然失败时以异常结束
+     */
+    public CompletableFuture<List<GalleryMetadata>> getMetadataAsync(Collection<GalleryIdTag> galleries, long timeout) {
+        final List<GalleryIdTag> list = new ArrayList<>(new LinkedHashSet<>(galleries));
+        final List<List<GalleryIdTag>> batches = new ArrayList<>();
+        final List<CompletableFuture<List<GalleryMetadata>>> futures = new ArrayList<>();
+        final CallGroup group = timeout > 0 ? new CallGroup() : null;
+        for (int i = 0; i < list.size(); i += GDATA_BATCH_SIZE) {
+            final List<GalleryIdTag> batch = list.subList(i, Math.min(i + GDATA_BATCH_SIZE, list.size()));
+            final RequestBody body = RequestBody.create(gdataRequest(batch), JSON);
+            batches.add(batch);
+            futures.add(client.postContextAsync(apiUrl, body, EhApi::parseMetadata, group));
         }
-        if (imagePage.hasOriginalUrl()) {
-            // 有原图地址，请求原图地址
-            return client.getContext(imagePage.getRedirectUrl()).getRedirectUrl();
-        }else{
-            // 无原图地址，返回预览图地址
-            return imagePage.getSrc();
+        final CompletableFuture<List<GalleryMetadata>> future = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(v -> collectMetadata(batches, futures));
+        if (timeout <= 0) {
+            return future;
         }
+        final CompletableFuture<List<GalleryMetadata>> result = new CompletableFuture<>();
+        final CompletableFuture<Void> timer = FutureUtils.delay(timeout);
+        future.whenComplete((metadata, e) -> {
+            // 提前完成时取消计时
+            timer.cancel(false);
+            if (e != null) {
+                result.completeExceptionally(e);
+            } else {
+                result.complete(metadata);
+            }
+        });
+        timer.thenRun(() -> {
+            // 先给出部分结果再取消, 取消引起的异常不会覆盖部分结果
+            if (result.complete(collectMetadata(batches, futures))) {
+                group.cancel();
+            }
+        });
+        return result;
     }
 
     /**
-     * 请求图像限额
+     * 按批次顺序合并元数据, 未完成的批次中的画廊记为已到达截止时间
+     */
+    private static List<GalleryMetadata> collectMetadata(List<List<GalleryIdTag>> batches,
+                                                         List<CompletableFuture<List<GalleryMetadata>>> futures) {
+        final List<GalleryMetadata> result = new ArrayList<>();
+        for (int i = 0; i < batches.size(); i++) {
+            final CompletableFuture<List<GalleryMetadata>> future = futures.get(i);
+            if (future.isDone()) {
+                result.addAll(future.join());
+            } else {
+                batches.get(i).forEach(idTag -> result.add(new GalleryMetadata(idTag.getId(), idTag.getTag(), "已到达截止时间")));
+            }
+        }
+        return result;
+    }
+
+    private static String gdataRequest(List<GalleryIdTag> galleries) {
+        final StringBuilder sb = new StringBuilder("{\"method\":\"gdata\",\"namespace\":1,\"gidlist\":[");
+        for (int i = 0; i < galleries.size(); i++) {
+            final GalleryIdTag idTag = galleries.get(i);
+            sb.append(i > 0 ? "," : "").append('[').append(idTag.getId()).append(',').append(JsonParser.quote(idTag.getTag())).append(']');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static List<GalleryMetadata> parseMetadata(ResponseContext context) throws IOException {
+        final Object json = JsonParser.parse(context.getBodyString());
+        if (!(json instanceof Map)) {
+            throw new IOException("api 响应格式错误");
+        }
+        final Map<?, ?> map = (Map<?, ?>) json;
+        if (map.containsKey("error")) {
+            throw new IOException("api 请求失败: " + map.get("error"));
+        }
+        final Object list = map.get("gmetadata");
+        if (!(list instanceof List)) {
+            throw new IOException("api 响应缺少 gmetadata");
+        }
+        final List<GalleryMetadata> result = new ArrayList<>();
+        for (Object item : (List<?>) list) {
+            if (item instanceof Map) {
+                result.add(new GalleryMetadata((Map<?, ?>) item));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 请求图像限额, 有多个身份时为所有身份之和
      * @return 限额
      */
     @Nullable
     public ImageLimit getImageLimit() throws IOException {
-        String home = "https://e-hentai.org/home.php";
-        final ResponseContext context = client.getContext(home);
+        try {
+            return FutureUtils.await(getImageLimitAsync());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        }
+    }
+
+    /**
+     * 异步请求每个身份的图像限额, 记录到身份池
+     * @return future, 结果为所有身份之和, 都无法解析时为 null
+     */
+    public CompletableFuture<ImageLimit> getImageLimitAsync() {
+        final IdentityPool pool = client.getIdentityPool();
+        final CompletableFuture<?>[] futures = pool.getIdentities().stream()
+                .map(identity -> client.getContextAsync(identity, HOME_URL, EhApi::parseImageLimit)
+                        .thenAccept(limit -> pool.updateImageLimit(identity, limit)))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).thenApply(v -> pool.getImageLimit());
+    }
+
+    @Nullable
+    private static ImageLimit parseImageLimit(ResponseContext context) throws IOException {
         @SuppressWarnings("SpellCheckingInspection")
         final Elements elements = context.getDocument().select(".homebox strong");
         if (elements.size()>=2) {
@@ -101,4 +918,52 @@ public class EhApi {
         return null;
     }
 
+    /**
+     * 从日志和缓存中查找画廊页, 缓存命中的页也记入日志
+     */
+    @Nullable
+    private GalleryPage getCachedPage(String url) {
+        GalleryPage page = journal != null ? journal.getPage(url) : null;
+        if (page == null && pageCache != null) {
+            page = pageCache.get(url);
+            if (page != null && journal != null) {
+                journal.recordPage(url, page);
+            }
+        }
+        return page;
+    }
+
+    private GalleryPage cachePage(String url, GalleryPage page) {
+        if (pageCache != null) {
+            try {
+                pageCache.put(url, page);
+            } catch (RuntimeException e) {
+                // 缓存写入失败不影响本次结果
+                client.getMetrics().increment(EhMetrics.CACHE_ERRORS);
+            }
+        }
+        if (journal != null) {
+            journal.recordPage(url, page);
+        }
+        return page;
+    }
+
+    private GalleryPage parseGalleryPage(ResponseContext context) throws IOException {
+        return parser.parseGalleryPage(context);
+    }
+
+    /**
+     * 解析图片详情页, 遇到509时抛出异常
+     * @param context 响应
+     * @return 图片详情页
+     */
+    private GalleryImagePage parseImagePage(ResponseContext context) throws IOException {
+        final GalleryImagePage imagePage = parser.parseImagePage(context);
+        if (ERROR_509.equals(imagePage.getSrc())) {
+            client.getMetrics().increment(EhMetrics.ERROR_509);
+            client.onLimitReached(context);
+            throw new ImageLimitException("509错误,请切换其他可用线路");
+        }
+        return imagePage;
+    }
 }
@@ -1,21 +1,52 @@
 package com.gin.api;
 
-import com.gin.callback.CountDownCallback;
+import com.gin.callback.BoundedExecutor;
+import com.gin.callback.FutureCallback;
 import com.gin.callback.ResponseHandler;
+import com.gin.client.ClientProfile;
+import com.gin.entity.BatchResult;
 import com.gin.entity.ResponseContext;
+import com.gin.identity.Identity;
+import com.gin.identity.IdentityPool;
+import com.gin.interceptor.CookieInterceptor;
+import com.gin.limiter.AdaptiveConcurrencyLimiter;
+import com.gin.limiter.Priority;
+import com.gin.limiter.RateLimiter;
+import com.gin.metrics.EhMetrics;
+import com.gin.metrics.MetricsEventListener;
+import com.gin.metrics.MetricsExporter;
+import com.gin.metrics.MetricsSnapshot;
+import com.gin.retry.RetryPolicy;
+import com.gin.utils.FutureUtils;
+import lombok.Getter;
+import lombok.Setter;
 import okhttp3.*;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jsoup.HttpStatusException;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.InetSocketAddress;
 import java.net.Proxy;
-import java.net.SocketTimeoutException;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -25,19 +56,95 @@ import java.util.stream.Collectors;
  * @since : 2023/4/1 09:35
  */
 public class EhClient {
+    /**
+     * 预热连接的默认地址
+     */
+    public static final List<String> WARM_UP_URLS = Arrays.asList("https://exhentai.org/", "https://e-hentai.org/");
     private final OkHttpClient client;
-    private final String cookie;
+    /**
+     * 请求身份(cookie + 代理), 每个请求分配给进行中请求最少的可用身份
+     */
+    @Getter
+    private final IdentityPool identityPool;
+    /**
+     * 每个身份的客户端, 共用连接池和 Dispatcher
+     */
+    private final Map<Identity, OkHttpClient> clients = new ConcurrentHashMap<>();
+    /**
+     * 批量请求的重试策略
+     */
+    @Getter
+    @Setter
+    private RetryPolicy retryPolicy = new RetryPolicy();
+    /**
+     * 请求指标
+     */
+    @Getter
+    private final EhMetrics metrics = new EhMetrics();
+    /**
+     * 指标导出
+     */
+    private final List<MetricsExporter> exporters = new CopyOnWriteArrayList<>();
+    /**
+     * 按域名和身份的限速, 默认不限速
+     */
+    @Getter
+    private final RateLimiter rateLimiter = new RateLimiter();
+    /**
+     * 按域名自适应的并发限制, 异步请求都经过这里, 放行后再取限速令牌
+     */
+    @Getter
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(metrics, rateLimiter);
+    /**
+     * 解析响应的线程池, 默认为所有客户端共用的CPU核数大小的 ForkJoinPool, 每个客户端限制排队数量; 为 null 或拒绝时在网络线程解析.
+     * 异步请求的响应体在网络线程读入内存, 处理方法在这里执行
+     */
+    @Getter
+    @Setter
+    private Executor parseExecutor = BoundedExecutor.createDefault();
+    /**
+     * 是否合并同时进行的相同异步GET请求: 只发出一次请求, 响应体读入内存后交给每个等待方.
+     * 同步请求和只需要响应头的请求不合并
+     */
+    @Getter
+    @Setter
+    private boolean coalescing = true;
+    /**
+     * 进行中的共享请求, 以地址为key
+     */
+    private final Map<String, SharedCall> sharedCalls = new ConcurrentHashMap<>();
 
 
     public EhClient(OkHttpClient client, String cookie, Proxy proxy) {
+        this(client, IdentityPool.single(cookie, proxy));
+    }
+
+    /**
+     * 按配置创建客户端
+     * @param profile      配置
+     * @param identityPool 身份池
+     */
+    public EhClient(ClientProfile profile, IdentityPool identityPool) {
+        this(profile.build(), identityPool);
+    }
+
+    /**
+     * 使用多个身份的客户端
+     * @param client       客户端
+     * @param identityPool 身份池
+     */
+    public EhClient(OkHttpClient client, IdentityPool identityPool) {
         final OkHttpClient.Builder builder = client.newBuilder();
         builder.followRedirects(false);
-        if (proxy != null) {
-            builder.proxy(proxy);
-        }
+        // 保留调用方的监听和 Dispatcher
+        builder.eventListenerFactory(MetricsEventListener.factory(metrics, client.eventListenerFactory()));
 
         this.client = builder.build();
-        this.cookie = cookie;
+        this.identityPool = identityPool;
+        // 实际并发由 limiter 决定, 不超过 Dispatcher 的上限
+        final int maxRequestsPerHost = this.client.dispatcher().getMaxRequestsPerHost();
+        limiter.setMaxLimit(Math.min(limiter.getMaxLimit(), maxRequestsPerHost));
+        limiter.setInitialLimit(Math.min(limiter.getInitialLimit(), maxRequestsPerHost));
     }
 
     /**
@@ -50,14 +157,11 @@ public class EhClient {
     }
 
     /**
-     * 默认客户端
+     * 默认客户端, 见 {@link ClientProfile}
      * @return okHttpclient
      */
     public static OkHttpClient defaultClient() {
-        return new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .connectionPool(new ConnectionPool(3, 30, TimeUnit.SECONDS))
-                .build();
+        return new ClientProfile().build();
     }
 
     /**
@@ -68,13 +172,55 @@ public class EhClient {
         return new Proxy(Proxy.Type.HTTP, new InetSocketAddress("127.0.0.1", 10809));
     }
 
+    /**
+     * 添加指标导出
+     * @param exporter 导出
+     */
+    public void addExporter(MetricsExporter exporter) {
+        exporters.add(exporter);
+    }
+
+    /**
+     * 取一次指标快照, 交给所有导出
+     * @return 快照
+     */
+    public MetricsSnapshot exportMetrics() {
+        final MetricsSnapshot snapshot = metrics.snapshot();
+        exporters.forEach(exporter -> exporter.export(snapshot));
+        return snapshot;
+    }
+
+    /**
+     * 预热: 以每个身份向 {@link #WARM_UP_URLS} 发出 HEAD 请求, 提前完成DNS解析和TLS握手, 连接留在连接池中
+     * @return future, 结果为成功的请求数, 不会以异常结束
+     */
+    public CompletableFuture<Integer> warmUp() {
+        return warmUp(WARM_UP_URLS, 1);
+    }
+
+    /**
+     * 预热: 以每个身份向每个地址同时发出若干 HEAD 请求. HTTP/1.1 时每个请求占用一个连接, HTTP/2 时共用一个连接
+     * @param urls        地址
+     * @param connections 每个身份每个地址的请求数
+     * @return future, 结果为成功的请求数, 不会以异常结束
+     */
+    public CompletableFuture<Integer> warmUp(Collection<String> urls, int connections) {
+        final AtomicInteger succeeded = new AtomicInteger();
+        final CompletableFuture<?>[] futures = identityPool.getIdentities().stream()
+                .flatMap(identity -> urls.stream().map(url -> getRequest(url, identity).newBuilder().head().build()))
+                .flatMap(request -> Collections.nCopies(Math.max(1, connections), request).stream())
+                .map(request -> callAsync(request, context -> succeeded.incrementAndGet(), Priority.INTERACTIVE).exceptionally(e -> null))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).thenApply(v -> succeeded.get());
+    }
+
     /**
      * 异步请求一个地址
      * @param url      地址
      * @param callback 响应处理方法
      */
     public void get(String url, Callback callback) {
-        getCall(url).enqueue(callback);
+        enqueue(getCall(url), callback, () -> Priority.INTERACTIVE);
     }
 
     /**
@@ -83,7 +229,34 @@ public class EhClient {
      * @return Document
      */
     public Response get(String url) throws IOException {
-        return getCall(url).execute();
+        return execute(getRequest(url));
+    }
+
+    /**
+     * 同步请求一个地址的指定偏移之后的内容, 用于断点续传
+     * @param url    地址
+     * @param offset 起始字节, 为0时不带 Range 请求头
+     * @return 响应, 服务器支持时状态码为206
+     */
+    public Response getRange(String url, long offset) throws IOException {
+        return getRange(url, offset, null);
+    }
+
+    /**
+     * 以指定身份同步请求一个地址的指定偏移之后的内容. 用于下载某个身份取得的原图地址
+     * @param url      地址
+     * @param offset   起始字节, 为0时不带 Range 请求头
+     * @param identity 身份, 为 null 时自动分配
+     * @return 响应, 服务器支持时状态码为206
+     */
+    public Response getRange(String url, long offset, @Nullable Identity identity) throws IOException {
+        final Request request = getRequest(url, identity);
+        if (offset <= 0) {
+            return execute(request);
+        }
+        return execute(request.newBuilder()
+                .header("Range", "bytes=" + offset + "-")
+                .build());
     }
 
     /**
@@ -96,70 +269,547 @@ public class EhClient {
     }
 
     /**
-     * 同步请求一个地址
+     * 同步请求一个地址, 响应体在第一次访问时读取, 可以只读取需要的部分. 不与其他请求合并
      * @param url 地址
-     * @return ResponseContext
+     * @return ResponseContext, 未读取响应体时需要关闭
      */
     public ResponseContext getContext(String url) throws IOException {
         return new ResponseContext(get(url));
     }
 
     /**
-     * 异步请求多个地址, 阻塞到所有请求成功, 转换为指定类型返回
-     * @param urls urls
-     * @return map
+     * 同步请求一个地址, 只读取响应头, 不下载响应体
+     * @param url 地址
+     * @return ResponseContext
      */
-    public <T> HashMap<String, T> getContext(Collection<String> urls, ResponseHandler<T> handler) throws InterruptedException {
-        final HashMap<String, T> map = new HashMap<>(urls.size());
-        // 缺少的页
-        List<String> lackUrls = new ArrayList<>(urls);
-        do {
-            // 请求缺少页, 放入返回结果
-            map.putAll(getContextAwait(lackUrls, handler));
-            // 重新计算缺少页
-            lackUrls = urls.stream().filter(u -> !map.containsKey(u)).collect(Collectors.toList());
-            // 当还有缺少页时，继续请求
-        } while (lackUrls.size() > 0);
-        return map;
+    public ResponseContext getHeaderContext(String url) throws IOException {
+        return getHeaderContext(url, null);
     }
 
-    @NotNull
-    private Call getCall(String url) {
-        return client.newCall(getRequest(url));
+    /**
+     * 以指定身份同步请求一个地址, 只读取响应头. 用于需要与上一个请求使用同一账号的地址(如原图地址)
+     * @param url      地址
+     * @param identity 身份, 为 null 时自动分配
+     * @return ResponseContext
+     */
+    public ResponseContext getHeaderContext(String url, @Nullable Identity identity) throws IOException {
+        return ResponseContext.headerOnly(execute(getRequest(url, identity)));
+    }
+
+    /**
+     * 异步请求多个地址, 阻塞到所有请求成功或达到重试上限, 转换为指定类型返回
+     * @param urls    urls
+     * @param handler 响应处理方法
+     * @return 结果
+     */
+    public <T> BatchResult<T> getContext(Collection<String> urls, ResponseHandler<T> handler) throws InterruptedException, IOException {
+        return FutureUtils.await(getContextAsync(urls, handler));
+    }
+
+    /**
+     * 异步请求多个地址, 阻塞到所有请求完成或到达截止时间
+     * @param urls    urls
+     * @param handler 响应处理方法
+     * @param timeout 截止时间(毫秒)
+     * @return 结果, 未完成的地址记录在 missing 中
+     */
+    public <T> BatchResult<T> getContext(Collection<String> urls, ResponseHandler<T> handler, long timeout) throws InterruptedException, IOException {
+        return FutureUtils.await(getContextAsync(urls, handler, timeout));
+    }
+
+    /**
+     * 异步请求一个地址, 转换为指定类型
+     * @param url     地址
+     * @param handler 响应处理方法
+     * @return future, 取消时会同时取消请求
+     */
+    public <T> CompletableFuture<T> getContextAsync(String url, ResponseHandler<T> handler) {
+        return getContextAsync(url, handler, Priority.INTERACTIVE);
+    }
+
+    /**
+     * 以指定优先级异步请求一个地址, 转换为指定类型. 交互请求加入进行中的批量请求时, 该请求提升为交互请求
+     * @param url      地址
+     * @param handler  响应处理方法
+     * @param priority 优先级
+     * @return future, 取消时会同时取消请求
+     */
+    public <T> CompletableFuture<T> getContextAsync(String url, ResponseHandler<T> handler, Priority priority) {
+        // 合并请求需要读入响应体, 只需要响应头的请求单独发出
+        if (!coalescing || !handler.needsBody()) {
+            return callAsync(getRequest(url), handler, priority);
+        }
+        final SharedCall shared = joinSharedCall(url, priority);
+        final ResponseHandler<T> timed = timed(handler);
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((t, e) -> {
+            if (future.isCancelled()) {
+                shared.leave();
+            }
+        });
+        shared.future.whenComplete((buffered, e) -> {
+            if (e != null) {
+                future.completeExceptionally(FutureUtils.unwrap(e));
+                return;
+            }
+            final Runnable task = () -> {
+                // 每个等待方解析各自的副本
+                try (ResponseContext context = buffered.copy()) {
+                    if (context.getCode() >= 400) {
+                        throw new HttpStatusException("HTTP error fetching URL", context.getCode(), context.getUrl());
+                    }
+                    future.complete(timed.handle(context));
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                }
+            };
+            BoundedExecutor.executeOrRun(parseExecutor, task);
+        });
+        return future;
     }
 
     /**
-     * 异步请求多个地址, 阻塞到所有请求完成或超时, 转换为指定类型返回
-     * @param urls urls
-     * @return map
+     * 以指定身份异步请求一个地址, 不与其他请求合并. 用于需要与上一个请求使用同一账号的地址, 或查询各身份的限额
+     * @param identity 身份, 为 null 时自动分配
+     * @param url      地址
+     * @param handler  响应处理方法
+     * @return future, 取消时会同时取消请求
      */
-    private <T> HashMap<String, T> getContextAwait(Collection<String> urls, ResponseHandler<T> handler) throws InterruptedException {
-        final HashMap<String, T> map = new HashMap<>(urls.size());
-        final CountDownLatch latch = new CountDownLatch(urls.size());
-        get(urls, new CountDownCallback(latch) {
+    public <T> CompletableFuture<T> getContextAsync(@Nullable Identity identity, String url, ResponseHandler<T> handler) {
+        return getContextAsync(identity, url, handler, Priority.INTERACTIVE);
+    }
+
+    /**
+     * 以指定身份和优先级异步请求一个地址, 不与其他请求合并
+     * @param identity 身份, 为 null 时自动分配
+     * @param url      地址
+     * @param handler  响应处理方法
+     * @param priority 优先级
+     * @return future, 取消时会同时取消请求
+     */
+    public <T> CompletableFuture<T> getContextAsync(@Nullable Identity identity, String url, ResponseHandler<T> handler, Priority priority) {
+        return callAsync(getRequest(url, identity), handler, priority);
+    }
+
+    /**
+     * 响应来自的身份遇到509, 剔除该身份一段时间
+     * @param context 响应
+     */
+    public void onLimitReached(ResponseContext context) {
+        if (context.getIdentity() != null) {
+            identityPool.onLimitReached(context.getIdentity());
+        }
+    }
+
+    /**
+     * 异步 POST 请求一个地址, 按重试策略在可恢复的错误后重试, 转换为指定类型
+     * @param url     地址
+     * @param body    请求体
+     * @param handler 响应处理方法
+     * @return future
+     */
+    public <T> CompletableFuture<T> postContextAsync(String url, RequestBody body, ResponseHandler<T> handler) {
+        return postContextAsync(url, body, handler, null);
+    }
+
+    /**
+     * 异步 POST 请求一个地址, 按重试策略在可恢复的错误后重试, 每次尝试都记录在组中
+     * @param url     地址
+     * @param body    请求体
+     * @param handler 响应处理方法
+     * @param group   请求组, 取消组时取消进行中的请求并停止重试; 可为 null
+     * @return future
+     */
+    public <T> CompletableFuture<T> postContextAsync(String url, RequestBody body, ResponseHandler<T> handler, @Nullable CallGroup group) {
+        final Request request = getRequest(url).newBuilder().post(body).build();
+        return retry(() -> CallGroup.track(group, () -> callAsync(request, handler, Priority.INTERACTIVE)), new AtomicInteger(), 1);
+    }
+
+    /**
+     * 异步发起一个请求, 转换为指定类型
+     * @param request  请求
+     * @param handler  响应处理方法
+     * @param priority 优先级
+     * @return future, 取消时会同时取消请求
+     */
+    private <T> CompletableFuture<T> callAsync(Request request, ResponseHandler<T> handler, Priority priority) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        final Call call = newCall(request);
+        future.whenComplete((t, e) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        enqueue(call, new FutureCallback<>(future, timed(handler), parseExecutor), () -> priority);
+        return future;
+    }
+
+    /**
+     * 异步请求多个地址, 所有地址请求成功或达到重试上限后完成, 转换为指定类型返回. 作为批量请求, 让交互请求优先
+     * @param urls    urls
+     * @param handler 响应处理方法
+     * @return future, 不会以异常结束, 失败的地址记录在结果中
+     */
+    public <T> CompletableFuture<BatchResult<T>> getContextAsync(Collection<String> urls, ResponseHandler<T> handler) {
+        return getContextAsync(urls, handler, 0);
+    }
+
+    /**
+     * 异步请求多个地址, 有截止时间. 到达截止时间时取消未完成的请求, 返回已有的结果, 未完成的地址记录在 missing 中
+     * @param urls    urls
+     * @param handler 响应处理方法
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @return future, 不会以异常结束
+     */
+    public <T> CompletableFuture<BatchResult<T>> getContextAsync(Collection<String> urls, ResponseHandler<T> handler, long timeout) {
+        return getContextAsync(urls, handler, timeout, null);
+    }
+
+    /**
+     * 异步请求多个地址, 所有地址完成或到达截止时间后完成. 每次尝试都记录在组中, 取消组时未完成的地址以
+     * {@link CancellationException} 记录在 failures 中
+     * @param urls    urls
+     * @param handler 响应处理方法
+     * @param timeout 截止时间(毫秒), 不大于0时不限制
+     * @param group   请求组, 可为 null
+     * @return future, 未完成的地址记录在 missing 中
+     */
+    public <T> CompletableFuture<BatchResult<T>> getContextAsync(Collection<String> urls, ResponseHandler<T> handler, long timeout,
+                                                                 @Nullable CallGroup group) {
+        final BatchResult<T> result = new BatchResult<>();
+        final List<String> distinct = urls.stream().distinct().collect(Collectors.toList());
+        // 本批次的请求, 截止时取消
+        final CallGroup calls = new CallGroup();
+        final AtomicBoolean finished = new AtomicBoolean();
+        final CompletableFuture<?>[] futures = distinct.stream()
+                .map(url -> retry(() -> CallGroup.track(group, () -> calls.track(() -> getContextAsync(url, handler, Priority.BULK))),
+                        result.getRetries(), 1)
+                        .handle((t, e) -> {
+                            synchronized (result) {
+                                // 截止后完成的请求已记为 missing
+                                if (finished.get()) {
+                                    return null;
+                                }
+                                if (e == null) {
+                                    result.getSuccesses().put(url, t);
+                                } else {
+                                    result.getFailures().put(url, FutureUtils.unwrap(e));
+                                }
+                            }
+                            return null;
+                        }))
+                .toArray(CompletableFuture[]::new);
+        final CompletableFuture<BatchResult<T>> future = new CompletableFuture<>();
+        CompletableFuture.allOf(futures).thenRun(() -> {
+            if (finished.compareAndSet(false, true)) {
+                future.complete(result);
+            }
+        });
+        if (timeout > 0) {
+            final CompletableFuture<Void> timer = FutureUtils.delay(timeout);
+            // 提前完成时取消计时
+            future.whenComplete((r, e) -> timer.cancel(false));
+            timer.thenRun(() -> {
+                synchronized (result) {
+                    if (!finished.compareAndSet(false, true)) {
+                        return;
+                    }
+                    distinct.stream()
+                            .filter(url -> !result.getSuccesses().containsKey(url) && !result.getFailures().containsKey(url))
+                            .forEach(result.getMissing()::add);
+                }
+                calls.cancel();
+                future.complete(result);
+            });
+        }
+        return future;
+    }
+
+    /**
+     * 按重试策略在可恢复的错误后重新发起请求
+     * @param request 发起一次请求
+     * @param retries 重试次数计数
+     * @param attempt 当前是第几次尝试, 从1开始
+     * @return future
+     */
+    private <T> CompletableFuture<T> retry(Supplier<CompletableFuture<T>> request, AtomicInteger retries, int attempt) {
+        return request.get().handle((t, e) -> {
+            if (e == null) {
+                return CompletableFuture.completedFuture(t);
+            }
+            final Throwable cause = FutureUtils.unwrap(e);
+            if (!retryPolicy.canRetry(attempt, cause)) {
+                return FutureUtils.<T>failed(cause);
+            }
+            retries.incrementAndGet();
+            metrics.increment(EhMetrics.RETRIES);
+            return FutureUtils.delay(retryPolicy.getDelayMillis(attempt))
+                    .thenCompose(v -> retry(request, retries, attempt + 1));
+        }).thenCompose(f -> f);
+    }
+
+    /**
+     * 加入对该地址进行中的请求, 没有时发起一个
+     * @param url      地址
+     * @param priority 优先级
+     * @return 共享的请求
+     */
+    private SharedCall joinSharedCall(String url, Priority priority) {
+        while (true) {
+            final SharedCall created = new SharedCall(url, priority);
+            SharedCall shared = sharedCalls.putIfAbsent(url, created);
+            if (shared == null) {
+                // 先加入再发出请求, 请求同步失败或被取消时不会没有等待方
+                created.join(priority);
+                created.start();
+                return created;
+            }
+            if (shared.join(priority)) {
+                return shared;
+            }
+            // 该请求已完成或已被所有等待方取消
+            sharedCalls.remove(url, shared);
+        }
+    }
+
+    /**
+     * 创建请求, 分配身份: 请求已指定身份时使用该身份, 否则选择进行中请求最少的可用身份
+     * @param request 请求
+     * @return call, 结束时需要调用 {@link IdentityPool#release}
+     */
+    private Call newCall(Request request) {
+        Identity identity = request.tag(Identity.class);
+        if (identity != null) {
+            identityPool.acquire(identity);
+        } else {
+            identity = identityPool.select();
+            request = request.newBuilder().tag(Identity.class, identity).build();
+        }
+        return clients.computeIfAbsent(identity, this::createClient).newCall(request);
+    }
+
+    /**
+     * 身份的客户端: 通过 {@link CookieInterceptor} 设置cookie, 使用身份的代理
+     */
+    private OkHttpClient createClient(Identity identity) {
+        final String name = identity.getName();
+        metrics.gauge("identity.inflight." + name, identity::getInFlight);
+        metrics.gauge("identity.ejected." + name, () -> identity.isAvailable() ? 0 : 1);
+        final OkHttpClient.Builder builder = client.newBuilder()
+                .addInterceptor(new CookieInterceptor(identity.getCookie()));
+        if (identity.getProxy() != null) {
+            builder.proxy(identity.getProxy());
+        }
+        return builder.build();
+    }
+
+    /**
+     * 异步发起请求: 按优先级进入并发限制, 放行后再等待限速令牌; 结束时释放身份
+     * @param call     请求
+     * @param callback 回调
+     * @param priority 优先级, 进入并发限制的队列时读取
+     */
+    private void enqueue(Call call, Callback callback, Supplier<Priority> priority) {
+        final Identity identity = call.request().tag(Identity.class);
+        final Callback released = new Callback() {
             @Override
-            public void handleFailure(Call call, String url, IOException e) {
-                if (e instanceof SocketTimeoutException) {
-                    System.err.println("[WARN] " + e.getLocalizedMessage() + " : " + url);
-                } else {
-                    e.printStackTrace();
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                try {
+                    callback.onFailure(call, e);
+                } finally {
+                    identityPool.release(identity, e);
                 }
             }
 
             @Override
-            public void handleResponse(Call call, ResponseContext context) throws IOException {
-                map.put(context.getUrl(), handler.handle(context));
+            public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+                try {
+                    callback.onResponse(call, response);
+                } finally {
+                    identityPool.release(identity, null);
+                }
+            }
+        };
+        limiter.enqueue(call, released, priority);
+    }
+
+    /**
+     * 同步发起请求, 在当前线程等待限速令牌. 响应体关闭时释放身份
+     * @param request 请求
+     * @return 响应, 需要关闭
+     */
+    private Response execute(Request request) throws IOException {
+        final Call call = newCall(request);
+        final Identity identity = call.request().tag(Identity.class);
+        try {
+            final long delay = rateLimiter.reserve(call.request());
+            if (delay > 0) {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            return releaseOnClose(call.execute(), identity);
+        } catch (InterruptedException e) {
+            identityPool.release(identity, null);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待限速时被中断");
+        } catch (IOException | RuntimeException e) {
+            identityPool.release(identity, e);
+            throw e;
+        }
+    }
+
+    /**
+     * 包装响应体, 关闭时释放身份. 响应体的读取(如下载)也计入该身份进行中的请求
+     * @param response 响应
+     * @param identity 身份
+     * @return 响应
+     */
+    private Response releaseOnClose(Response response, Identity identity) {
+        final ResponseBody body = response.body();
+        if (body == null) {
+            identityPool.release(identity, null);
+            return response;
+        }
+        final AtomicBoolean released = new AtomicBoolean();
+        final BufferedSource source = Okio.buffer(new ForwardingSource(body.source()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    if (released.compareAndSet(false, true)) {
+                        identityPool.release(identity, null);
+                    }
+                }
             }
         });
-        latch.await();
-        return map;
+        return response.newBuilder()
+                .body(ResponseBody.create(source, body.contentType(), body.contentLength()))
+                .build();
+    }
+
+    /**
+     * 记录处理方法的耗时和失败次数
+     * @param handler 响应处理方法
+     * @return 包装后的处理方法
+     */
+    private <T> ResponseHandler<T> timed(ResponseHandler<T> handler) {
+        final ResponseHandler<T> timed = context -> {
+            final long start = System.nanoTime();
+            try {
+                return handler.handle(context);
+            } catch (Exception e) {
+                // 网络错误由 MetricsEventListener 计数, 这里只计处理方法的错误
+                metrics.increment(EhMetrics.HANDLER_FAILURES);
+                throw e;
+            } finally {
+                metrics.recordNanos(EhMetrics.PARSE, System.nanoTime() - start);
+            }
+        };
+        return handler.needsBody() ? timed : ResponseHandler.headerOnly(timed);
+    }
+
+    /**
+     * 多个等待方共享的一次GET请求, 响应体读入内存后由各等待方复制解析. 所有等待方都取消时才取消请求.
+     * 优先级取等待方中最高的
+     */
+    private class SharedCall {
+        final String url;
+        final CompletableFuture<ResponseContext> future = new CompletableFuture<>();
+        private Call call;
+        private int waiters;
+        private boolean cancelled;
+        private volatile Priority priority;
+
+        SharedCall(String url, Priority priority) {
+            this.url = url;
+            this.priority = priority;
+        }
+
+        void start() {
+            future.whenComplete((c, e) -> sharedCalls.remove(url, this));
+            final Call call;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                call = this.call = getCall(url);
+            }
+            enqueue(call, new Callback() {
+                @Override
+                public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                    future.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(@NotNull Call call, @NotNull Response response) {
+                    final ResponseContext context = new ResponseContext(response);
+                    try {
+                        context.buffer();
+                        future.complete(context);
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                }
+            }, () -> priority);
+        }
+
+        boolean join(Priority priority) {
+            final Call call;
+            synchronized (this) {
+                // 已完成的请求可能还未从 sharedCalls 中移除, 不再加入
+                if (cancelled || future.isDone()) {
+                    return false;
+                }
+                waiters++;
+                if (priority != Priority.INTERACTIVE || this.priority == Priority.INTERACTIVE) {
+                    return true;
+                }
+                this.priority = Priority.INTERACTIVE;
+                call = this.call;
+            }
+            // 已在并发限制的队列中时提升, 尚未进入时会读取新的优先级
+            if (call != null) {
+                limiter.promote(call);
+            }
+            return true;
+        }
+
+        void leave() {
+            final Call call;
+            synchronized (this) {
+                if (--waiters > 0 || future.isDone()) {
+                    return;
+                }
+                cancelled = true;
+                call = this.call;
+            }
+            sharedCalls.remove(url, this);
+            if (call != null) {
+                call.cancel();
+            } else {
+                future.cancel(false);
+            }
+        }
     }
 
+    @NotNull
+    private Call getCall(String url) {
+        return newCall(getRequest(url));
+    }
+
+    /**
+     * 请求, cookie 由身份的客户端设置
+     */
     @NotNull
     private Request getRequest(String url) {
+        return getRequest(url, null);
+    }
+
+    @NotNull
+    private Request getRequest(String url, @Nullable Identity identity) {
         return new Request.Builder()
                 .url(url)
-                .header("cookie", this.cookie)
+                .tag(Identity.class, identity)
                 .build();
     }
 }
@@ -0,0 +1,266 @@
+package com.gin.api;
+
+import com.gin.entity.Gallery;
+import com.gin.entity.GalleryPage;
+import com.gin.entity.GalleryResult;
+import com.gin.utils.FutureUtils;
+import com.gin.utils.GalleryIdTag;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 批量请求画廊: 所有画廊的分页共用同一组请求名额, 按画廊轮流分配, 大画廊不会占满名额
+ * <p>同时进行中的画廊数有上限, 先开始的画廊先完成; 每个画廊完成后立即回调</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 21:35
+ */
+class GalleryCrawler {
+    private final EhApi api;
+    private final int concurrency;
+    private final int maxActive;
+    private final Consumer<GalleryResult> consumer;
+    /**
+     * 按输入顺序排列的任务
+     */
+    private final List<Job> jobs = new ArrayList<>();
+    /**
+     * 尚未开始的画廊
+     */
+    private final Queue<Job> waiting = new ArrayDeque<>();
+    /**
+     * 有待请求分页的画廊, 轮流取分页
+     */
+    private final Deque<Job> ready = new ArrayDeque<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final CompletableFuture<List<GalleryResult>> future = new CompletableFuture<>();
+    /**
+     * 所有分页的请求, 截止时取消
+     */
+    private final CallGroup calls = new CallGroup();
+    private int active;
+    private int running;
+    private int finished;
+    /**
+     * 已到达截止时间
+     */
+    private boolean expired;
+
+    GalleryCrawler(EhApi api, Collection<String> urls, int concurrency, @Nullable Consumer<GalleryResult> consumer) {
+        this.api = api;
+        this.concurrency = Math.max(1, concurrency);
+        this.maxActive = this.concurrency * 2;
+        this.consumer = consumer != null ? consumer : r -> {
+        };
+        final Set<GalleryIdTag> seen = new HashSet<>();
+        for (String url : urls) {
+            final GalleryIdTag idTag = GalleryIdTag.parse(url);
+            if (idTag == null) {
+                final Job job = new Job(url, null);
+                job.result = new GalleryResult(url, null, new IOException("不是合法的画廊地址: " + url));
+                jobs.add(job);
+            } else if (seen.add(idTag)) {
+                final Job job = new Job(url, idTag.getFirstUrl());
+                jobs.add(job);
+                waiting.add(job);
+            }
+        }
+    }
+
+    CompletableFuture<List<GalleryResult>> start() {
+        return start(0);
+    }
+
+    /**
+     * 开始请求
+     * @param timeout 截止时间(毫秒), 不大于0时不限制. 到达截止时间时不再请求新的分页, 取消进行中的请求, 未完成的画廊记为超时
+     * @return future
+     */
+    CompletableFuture<List<GalleryResult>> start(long timeout) {
+        if (jobs.isEmpty()) {
+            future.complete(new ArrayList<>());
+            return future;
+        }
+        if (timeout > 0) {
+            final CompletableFuture<Void> timer = FutureUtils.delay(timeout);
+            // 提前完成时取消计时
+            future.whenComplete((results, e) -> timer.cancel(false));
+            timer.thenRun(this::expire);
+        }
+        jobs.stream().filter(job -> job.result != null).forEach(this::deliver);
+        pump();
+        return future;
+    }
+
+    /**
+     * 到达截止时间: 不再请求新的分页, 未完成的画廊记为超时, 然后取消进行中的请求
+     */
+    private void expire() {
+        final List<Job> expired = new ArrayList<>();
+        synchronized (this) {
+            this.expired = true;
+            waiting.clear();
+            ready.clear();
+            for (Job job : jobs) {
+                if (job.result == null) {
+                    job.pending.clear();
+                    job.result = new GalleryResult(job.url, null, new TimeoutException("已到达截止时间"));
+                    expired.add(job);
+                }
+            }
+        }
+        expired.forEach(this::deliver);
+        calls.cancel();
+    }
+
+    /**
+     * 在名额内发出尽可能多的请求. 请求同步完成(如命中缓存)时会重新进入, 用计数代替递归
+     */
+    private void pump() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            Runnable task;
+            while ((task = nextTask()) != null) {
+                task.run();
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    /**
+     * 轮流从有待请求分页的画廊中取下一个分页
+     */
+    private synchronized Runnable nextTask() {
+        if (expired || running >= concurrency) {
+            return null;
+        }
+        while (active < maxActive && !waiting.isEmpty()) {
+            final Job job = waiting.poll();
+            job.pending.add(job.firstUrl);
+            ready.add(job);
+            active++;
+        }
+        final Job job = ready.poll();
+        if (job == null) {
+            return null;
+        }
+        final String url = job.pending.poll();
+        if (!job.pending.isEmpty()) {
+            ready.add(job);
+        }
+        job.inFlight++;
+        running++;
+        return () -> launch(job, url);
+    }
+
+    private void launch(Job job, String url) {
+        api.getGalleryPageAsync(Collections.singletonList(url), 0, calls).whenComplete((result, e) -> {
+            final GalleryPage page = result != null ? result.getSuccesses().get(url) : null;
+            Throwable error = e;
+            if (page == null && error == null) {
+                error = result.getFailures().get(url);
+                if (error == null) {
+                    error = new IOException("画廊页请求失败: " + url);
+                }
+            }
+            try {
+                if (onPage(job, url, page, error)) {
+                    deliver(job);
+                }
+            } finally {
+                pump();
+            }
+        });
+    }
+
+    /**
+     * 记录一个分页的结果
+     * @return 画廊是否已完成
+     */
+    private synchronized boolean onPage(Job job, String url, GalleryPage page, Throwable error) {
+        running--;
+        job.inFlight--;
+        if (job.result != null) {
+            // 已超时
+            return false;
+        }
+        if (job.error == null) {
+            if (error != null) {
+                // 一页失败则整个画廊失败, 不再请求其余分页
+                job.error = error;
+                job.pending.clear();
+                ready.remove(job);
+            } else {
+                job.pages.add(page);
+                if (url.equals(job.firstUrl)) {
+                    try {
+                        page.getAllPages().stream().filter(u -> !u.equals(url)).forEach(job.pending::add);
+                    } catch (RuntimeException e) {
+                        job.error = e;
+                        job.pending.clear();
+                    }
+                    if (!job.pending.isEmpty()) {
+                        ready.add(job);
+                    }
+                }
+            }
+        }
+        if (job.inFlight > 0 || !job.pending.isEmpty()) {
+            return false;
+        }
+        active--;
+        job.result = job.error != null ? new GalleryResult(job.url, null, job.error) : assemble(job);
+        return true;
+    }
+
+    /**
+     * 由分页组装画廊, 组装失败时该画廊失败, 不影响其他画廊
+     */
+    private static GalleryResult assemble(Job job) {
+        try {
+            return new GalleryResult(job.url, new Gallery(job.pages), null);
+        } catch (RuntimeException e) {
+            return new GalleryResult(job.url, null, e);
+        }
+    }
+
+    private void deliver(Job job) {
+        try {
+            consumer.accept(job.result);
+        } catch (Throwable e) {
+            future.completeExceptionally(new CompletionException(e));
+        }
+        final boolean done;
+        synchronized (this) {
+            done = ++finished == jobs.size();
+        }
+        if (done) {
+            final List<GalleryResult> results = new ArrayList<>();
+            jobs.forEach(j -> results.add(j.result));
+            future.complete(results);
+        }
+    }
+
+    private static class Job {
+        final String url;
+        final String firstUrl;
+        final Queue<String> pending = new ArrayDeque<>();
+        final List<GalleryPage> pages = new ArrayList<>();
+        int inFlight;
+        Throwable error;
+        volatile GalleryResult result;
+
+        Job(String url, String firstUrl) {
+            this.url = url;
+            this.firstUrl = firstUrl;
+        }
+    }
+}
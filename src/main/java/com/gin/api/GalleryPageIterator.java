@@ -0,0 +1,155 @@
+package com.gin.api;
+
+import com.gin.entity.BatchResult;
+import com.gin.entity.GalleryPage;
+import com.gin.utils.FutureUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * 逐页输出画廊页, 最多提前请求 prefetch 页
+ * <p>先输出作为入口的那一页, 其余页按页码顺序输出. 消费者取走一页后才会请求下一页, 处理慢时不会积压.
+ * 请求失败(重试后)时 {@link #next()} 抛出 {@link UncheckedIOException}, 入口页失败时迭代随之结束</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 21:10
+ */
+public class GalleryPageIterator implements Iterator<GalleryPage>, Closeable {
+    private final EhApi api;
+    private final String url;
+    private final int prefetch;
+    private final Deque<CompletableFuture<GalleryPage>> window = new ArrayDeque<>();
+    /**
+     * 保护请求窗口, 等待结果时不持有, 以便其他线程 {@link #close()}
+     */
+    private final Object lock = new Object();
+    private CompletableFuture<GalleryPage> first;
+    /**
+     * 入口页之外的页, 收到入口页后才知道
+     */
+    private List<String> rest;
+    private int requested;
+    private int returned;
+    private volatile boolean closed;
+
+    GalleryPageIterator(EhApi api, String url, int prefetch) {
+        this.api = api;
+        this.url = url;
+        this.prefetch = Math.max(1, prefetch);
+        this.first = fetch(url);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (closed) {
+            return false;
+        }
+        synchronized (lock) {
+            return first != null || returned < rest.size();
+        }
+    }
+
+    /**
+     * 下一页, 入口页请求失败时抛出异常并结束迭代
+     */
+    @Override
+    public GalleryPage next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final CompletableFuture<GalleryPage> future;
+        final boolean isFirst;
+        synchronized (lock) {
+            isFirst = first != null;
+            if (isFirst) {
+                future = first;
+            } else {
+                future = window.poll();
+                returned++;
+                fill();
+            }
+        }
+        if (!isFirst) {
+            return await(future);
+        }
+        final GalleryPage page;
+        try {
+            page = await(future);
+        } catch (RuntimeException e) {
+            // 不知道其余页, 结束迭代
+            synchronized (lock) {
+                first = null;
+                rest = Collections.emptyList();
+            }
+            throw e;
+        }
+        synchronized (lock) {
+            first = null;
+            rest = page.getAllPages().stream().filter(u -> !u.equals(url)).collect(Collectors.toList());
+            fill();
+        }
+        return page;
+    }
+
+    /**
+     * 停止请求后续页, 已经发出的请求会继续完成. 可以在其他线程调用, 正在等待的 {@link #next()} 抛出 {@link java.util.concurrent.CancellationException}
+     */
+    @Override
+    public void close() {
+        closed = true;
+        synchronized (lock) {
+            if (first != null) {
+                first.cancel(false);
+            }
+            window.forEach(f -> f.cancel(false));
+            window.clear();
+        }
+    }
+
+    private void fill() {
+        while (!closed && window.size() < prefetch && requested < rest.size()) {
+            window.add(fetch(rest.get(requested++)));
+        }
+    }
+
+    /**
+     * 请求一页, 使用批量请求以获得缓存和重试
+     */
+    private CompletableFuture<GalleryPage> fetch(String url) {
+        return api.getGalleryPageAsync(Collections.singletonList(url)).thenApply(result -> {
+            final GalleryPage page = result.getSuccesses().get(url);
+            if (page == null) {
+                throw new CompletionException(failure(result, url));
+            }
+            return page;
+        });
+    }
+
+    private static Throwable failure(BatchResult<GalleryPage> result, String url) {
+        final Throwable e = result.getFailures().get(url);
+        return e != null ? e : new IOException("画廊页请求失败: " + url);
+    }
+
+    private static GalleryPage await(CompletableFuture<GalleryPage> future) {
+        try {
+            return FutureUtils.await(future);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException(e.getMessage()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.gin.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 缓存统计快照
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 16:50
+ */
+@Getter
+@AllArgsConstructor
+public class CacheStats {
+    /**
+     * 命中次数(含合并到进行中请求的次数)
+     */
+    final long hits;
+    /**
+     * 未命中次数, 即实际发起加载的次数
+     */
+    final long misses;
+    /**
+     * 因容量上限淘汰的条目数
+     */
+    final long evictions;
+    /**
+     * 因过期移除的条目数
+     */
+    final long expirations;
+    /**
+     * 当前条目数
+     */
+    final int size;
+
+    public double getHitRate() {
+        final long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("hits=%d, misses=%d, evictions=%d, expirations=%d, size=%d, hitRate=%.3f",
+                hits, misses, evictions, expirations, size, getHitRate());
+    }
+}
@@ -0,0 +1,262 @@
+package com.gin.cache;
+
+import com.gin.entity.GalleryPage;
+import com.gin.utils.GalleryIdTag;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 画廊页的磁盘缓存
+ * <p>每页一个文件, 内容为写入时间 + {@link GalleryPageCodec} 编码. 超过有效期视为未命中;
+ * 总大小超过上限时按最近访问时间淘汰(访问时间记录为文件修改时间, 重启后仍然有效).
+ * 不同页的读写可以并行</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 16:20
+ */
+public class DiskGalleryPageCache implements GalleryPageCache {
+    private static final String SUFFIX = ".bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int LOCKS = 32;
+
+    private final Path dir;
+    /**
+     * 有效期(毫秒)
+     */
+    private final long ttl;
+    /**
+     * 缓存总大小上限(字节)
+     */
+    private final long maxBytes;
+    /**
+     * 文件名 -> 文件大小, 按访问顺序排列
+     */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    /**
+     * 按文件名分段的锁, 文件读写只持有对应的锁; 索引由对象锁保护, 不在其中进行文件读写
+     */
+    private final Object[] locks = new Object[LOCKS];
+
+    /**
+     * @param dir      缓存目录
+     * @param ttl      有效期(毫秒)
+     * @param maxBytes 缓存总大小上限(字节)
+     */
+    public DiskGalleryPageCache(Path dir, long ttl, long maxBytes) throws IOException {
+        this.dir = dir;
+        this.ttl = ttl;
+        this.maxBytes = maxBytes;
+        for (int i = 0; i < LOCKS; i++) {
+            locks[i] = new Object();
+        }
+        Files.createDirectories(dir);
+        load();
+    }
+
+    @Override
+    public GalleryPage get(String url) {
+        final String name = filename(url);
+        if (name == null || !contains(name)) {
+            return null;
+        }
+        final Path path = dir.resolve(name);
+        synchronized (lock(name)) {
+            try {
+                final byte[] bytes = Files.readAllBytes(path);
+                final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                final long writtenAt = buffer.getLong();
+                if (System.currentTimeMillis() - writtenAt > ttl) {
+                    remove(name);
+                    return null;
+                }
+                // 记录访问时间
+                touch(name);
+                Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+                return GalleryPageCodec.decode(Arrays.copyOfRange(bytes, Long.BYTES, bytes.length));
+            } catch (IOException | RuntimeException e) {
+                // 文件损坏或已被删除
+                remove(name);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * 写入缓存
+     * @throws UncheckedIOException 写入文件失败
+     */
+    @Override
+    public void put(String url, GalleryPage page) {
+        final String name = filename(url);
+        if (name == null) {
+            return;
+        }
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(System.currentTimeMillis());
+            GalleryPageCodec.write(out, page);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final List<String> evicted;
+        synchronized (lock(name)) {
+            final Path path = dir.resolve(name);
+            final Path temp = dir.resolve(name + TEMP_SUFFIX);
+            try {
+                Files.write(temp, bytes.toByteArray());
+                try {
+                    Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } catch (IOException e) {
+                deleteQuietly(temp);
+                throw new UncheckedIOException(e);
+            }
+            synchronized (this) {
+                final Long old = index.put(name, (long) bytes.size());
+                totalBytes += bytes.size() - (old != null ? old : 0);
+                evicted = evict();
+            }
+        }
+        evicted.forEach(this::deleteEvicted);
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        final List<String> names;
+        synchronized (this) {
+            names = new ArrayList<>(index.keySet());
+        }
+        for (String name : names) {
+            synchronized (lock(name)) {
+                remove(name);
+            }
+        }
+    }
+
+    /**
+     * 缓存总大小
+     * @return 字节
+     */
+    public synchronized long size() {
+        return totalBytes;
+    }
+
+    /**
+     * 读取目录中已有的缓存文件, 按修改时间恢复访问顺序. 删除上次写入中断留下的临时文件
+     */
+    private void load() throws IOException {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + TEMP_SUFFIX)) {
+            stream.forEach(DiskGalleryPageCache::deleteQuietly);
+        }
+        final List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        final Map<Path, BasicFileAttributes> attributes = new LinkedHashMap<>();
+        for (Path file : files) {
+            attributes.put(file, Files.readAttributes(file, BasicFileAttributes.class));
+        }
+        files.sort(Comparator.comparing(f -> attributes.get(f).lastModifiedTime()));
+        for (Path file : files) {
+            final long size = attributes.get(file).size();
+            index.put(file.getFileName().toString(), size);
+            totalBytes += size;
+        }
+        evict().forEach(name -> deleteQuietly(dir.resolve(name)));
+    }
+
+    /**
+     * 从索引中移除超出上限的条目
+     * @return 需要删除的文件名
+     */
+    private List<String> evict() {
+        final List<String> evicted = new ArrayList<>();
+        final Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            final Map.Entry<String, Long> entry = iterator.next();
+            iterator.remove();
+            totalBytes -= entry.getValue();
+            evicted.add(entry.getKey());
+        }
+        return evicted;
+    }
+
+    /**
+     * 删除被淘汰的文件, 期间已被重新写入的不删除
+     */
+    private void deleteEvicted(String name) {
+        synchronized (lock(name)) {
+            if (!contains(name)) {
+                deleteQuietly(dir.resolve(name));
+            }
+        }
+    }
+
+    /**
+     * 移除条目并删除文件, 调用方需持有该文件的锁
+     */
+    private void remove(String name) {
+        synchronized (this) {
+            final Long size = index.remove(name);
+            if (size != null) {
+                totalBytes -= size;
+            }
+        }
+        deleteQuietly(dir.resolve(name));
+    }
+
+    private synchronized boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    private synchronized void touch(String name) {
+        index.get(name);
+    }
+
+    /**
+     * 文件锁, 同一文件的读写互斥, 不同文件的读写可以并行
+     */
+    private Object lock(String name) {
+        return locks[(name.hashCode() & 0x7fffffff) % locks.length];
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 缓存文件名: {id}_{tag}_{page}.bin
+     * @param url 画廊页地址
+     * @return 文件名, 不是画廊页地址时为 null
+     */
+    private static String filename(String url) {
+        final GalleryIdTag idTag = GalleryIdTag.parse(url);
+        return idTag != null ? idTag.getId() + "_" + idTag.getTag() + "_" + GalleryIdTag.parsePage(url) + SUFFIX : null;
+    }
+}
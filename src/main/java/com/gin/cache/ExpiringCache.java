@@ -0,0 +1,157 @@
+package com.gin.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 有容量上限和有效期的内存缓存, 同一个key的并发加载会合并为一次(single-flight)
+ * <p>加载失败的结果不缓存</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 16:40
+ */
+public class ExpiringCache<K, V> {
+    private final int maxSize;
+    /**
+     * 有效期(毫秒)
+     */
+    private final long ttl;
+    /**
+     * 已加载的值, 按访问顺序排列
+     */
+    private final LinkedHashMap<K, Entry<V>> entries;
+    /**
+     * 正在加载的key
+     */
+    private final Map<K, CompletableFuture<V>> loading = new HashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maxSize 最大条目数
+     * @param ttl     有效期(毫秒)
+     */
+    public ExpiringCache(int maxSize, long ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                final boolean remove = size() > ExpiringCache.this.maxSize;
+                if (remove) {
+                    evictions.increment();
+                }
+                return remove;
+            }
+        };
+    }
+
+    /**
+     * 查询缓存, 未命中时加载. 同一个key正在加载时合并到同一次加载
+     * <p>加载方法在锁外执行. 每个调用方得到各自的 future, 取消不影响其他调用方和加载本身</p>
+     * @param key    key
+     * @param loader 加载方法
+     * @return future
+     */
+    public CompletableFuture<V> get(K key, Function<K, CompletableFuture<V>> loader) {
+        final CompletableFuture<V> shared;
+        synchronized (this) {
+            final Entry<V> entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expireAt > System.currentTimeMillis()) {
+                    hits.increment();
+                    return CompletableFuture.completedFuture(entry.value);
+                }
+                entries.remove(key);
+                expirations.increment();
+            }
+            final CompletableFuture<V> inFlight = loading.get(key);
+            if (inFlight != null) {
+                hits.increment();
+                return inFlight.thenApply(v -> v);
+            }
+            misses.increment();
+            shared = new CompletableFuture<>();
+            loading.put(key, shared);
+        }
+        shared.whenComplete((v, e) -> complete(key, shared, v, e));
+        try {
+            loader.apply(key).whenComplete((v, e) -> {
+                if (e != null) {
+                    shared.completeExceptionally(e);
+                } else {
+                    shared.complete(v);
+                }
+            });
+        } catch (RuntimeException e) {
+            shared.completeExceptionally(e);
+        }
+        return shared.thenApply(v -> v);
+    }
+
+    /**
+     * 查询缓存, 不加载
+     * @param key key
+     * @return 值, 未命中或已过期时为 null
+     */
+    public synchronized V getIfPresent(K key) {
+        final Entry<V> entry = entries.get(key);
+        return entry != null && entry.expireAt > System.currentTimeMillis() ? entry.value : null;
+    }
+
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttl));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * 移除所有已过期的条目
+     */
+    public synchronized void cleanUp() {
+        final long now = System.currentTimeMillis();
+        for (Iterator<Entry<V>> iterator = entries.values().iterator(); iterator.hasNext(); ) {
+            if (iterator.next().expireAt <= now) {
+                iterator.remove();
+                expirations.increment();
+            }
+        }
+    }
+
+    /**
+     * 统计快照
+     * @return 统计
+     */
+    public synchronized CacheStats getStats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), expirations.sum(), entries.size());
+    }
+
+    private synchronized void complete(K key, CompletableFuture<V> future, V value, Throwable e) {
+        if (loading.get(key) == future) {
+            loading.remove(key);
+        }
+        if (e == null && value != null) {
+            put(key, value);
+        }
+    }
+
+    private static class Entry<V> {
+        final V value;
+        final long expireAt;
+
+        Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.gin.cache;
+
+import com.gin.entity.GalleryPage;
+
+/**
+ * 画廊页缓存, 以画廊ID、TAG和页码为key
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 16:00
+ */
+public interface GalleryPageCache {
+    /**
+     * 查询缓存
+     * @param url 画廊页地址
+     * @return 画廊页, 未命中或已过期时为 null
+     */
+    GalleryPage get(String url);
+
+    /**
+     * 写入缓存
+     * @param url  画廊页地址
+     * @param page 画廊页
+     */
+    void put(String url, GalleryPage page);
+}
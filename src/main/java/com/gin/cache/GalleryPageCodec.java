@@ -0,0 +1,95 @@
+package com.gin.cache;
+
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.entity.GalleryPage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 画廊页的紧凑二进制格式
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 16:05
+ */
+public class GalleryPageCodec {
+    private static final int VERSION = 1;
+
+    public static byte[] encode(GalleryPage page) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(out, page);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static GalleryPage decode(byte[] bytes) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return read(in);
+        }
+    }
+
+    public static void write(DataOutputStream out, GalleryPage page) throws IOException {
+        out.writeByte(VERSION);
+        out.writeLong(page.getId());
+        writeString(out, page.getTag());
+        writeString(out, page.getTitle());
+        writeString(out, page.getTitleJp());
+        out.writeInt(page.getPage());
+        out.writeInt(page.getMaxPages());
+        final List<GalleryImageThumbnail> thumbnails = page.getThumbnails();
+        out.writeInt(thumbnails != null ? thumbnails.size() : -1);
+        if (thumbnails != null) {
+            for (GalleryImageThumbnail thumbnail : thumbnails) {
+                out.writeInt(thumbnail.getIndex());
+                writeString(out, thumbnail.getImagePageUrl());
+                writeString(out, thumbnail.getFilename());
+                writeString(out, thumbnail.getThumbnailUrl());
+            }
+        }
+    }
+
+    public static GalleryPage read(DataInputStream in) throws IOException {
+        final int version = in.readByte();
+        if (version != VERSION) {
+            throw new IOException("不支持的缓存版本: " + version);
+        }
+        final GalleryPage page = new GalleryPage();
+        page.setId(in.readLong());
+        page.setTag(readString(in));
+        page.setTitle(readString(in));
+        page.setTitleJp(readString(in));
+        page.setPage(in.readInt());
+        page.setMaxPages(in.readInt());
+        final int size = in.readInt();
+        if (size >= 0) {
+            final List<GalleryImageThumbnail> thumbnails = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                final GalleryImageThumbnail thumbnail = new GalleryImageThumbnail();
+                thumbnail.setIndex(in.readInt());
+                thumbnail.setImagePageUrl(readString(in));
+                thumbnail.setFilename(readString(in));
+                thumbnail.setThumbnailUrl(readString(in));
+                thumbnails.add(thumbnail);
+            }
+            page.setThumbnails(thumbnails);
+        }
+        return page;
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeBoolean(s != null);
+        if (s != null) {
+            out.writeUTF(s);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,91 @@
+package com.gin.callback;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * 限制排队任务数的 Executor: 已提交未完成的任务达到上限时立即拒绝, 不阻塞提交方.
+ * 用于解析线程池, 被拒绝的任务由提交方自己执行(caller-runs), 解析跟不上时网络线程忙于解析, 不再取新的响应,
+ * 而不是在内存中积压响应
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 23:10
+ */
+public class BoundedExecutor implements Executor {
+    /**
+     * 默认解析线程池共用的 ForkJoinPool, CPU核数大小, 线程为守护线程, 不随客户端创建和关闭
+     */
+    private static final ForkJoinPool SHARED_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    private final Executor delegate;
+    private final Semaphore permits;
+    private final int maxPending;
+
+    /**
+     * @param delegate   执行任务的线程池
+     * @param maxPending 最多已提交未完成的任务数
+     */
+    public BoundedExecutor(Executor delegate, int maxPending) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxPending);
+        this.maxPending = maxPending;
+    }
+
+    /**
+     * 默认解析线程池: 所有客户端共用一个CPU核数大小的 ForkJoinPool, 每个客户端最多排队 核数*4 个任务
+     * @return executor
+     */
+    public static BoundedExecutor createDefault() {
+        return new BoundedExecutor(SHARED_POOL, SHARED_POOL.getParallelism() * 4);
+    }
+
+    /**
+     * 提交任务, 达到上限或线程池拒绝时抛出 {@link RejectedExecutionException}
+     * @param command 任务
+     */
+    @Override
+    public void execute(Runnable command) {
+        if (!permits.tryAcquire()) {
+            throw new RejectedExecutionException("排队的任务已达上限: " + maxPending);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 提交任务, 被拒绝时在当前线程执行
+     * @param executor 线程池, 为 null 时在当前线程执行
+     * @param command  任务
+     */
+    public static void executeOrRun(Executor executor, Runnable command) {
+        if (executor == null) {
+            command.run();
+            return;
+        }
+        try {
+            executor.execute(command);
+        } catch (RejectedExecutionException e) {
+            command.run();
+        }
+    }
+
+    /**
+     * 已提交未完成的任务数
+     * @return 任务数
+     */
+    public int getPending() {
+        return maxPending - permits.availablePermits();
+    }
+}
@@ -23,14 +23,21 @@ public abstract class CountDownCallback implements Callback {
     @Override
     public final void onFailure(@NotNull Call call, @NotNull IOException e) {
         final String url = call.request().url().toString();
-        handleFailure(call, url, e);
-        countDownLatch.countDown();
+        try {
+            handleFailure(call, url, e);
+        } finally {
+            countDownLatch.countDown();
+        }
     }
 
     @Override
     public final void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
-        handleResponse(call,new ResponseContext(response));
-        countDownLatch.countDown();
+        // 处理方法抛出异常时也要倒计时, 否则等待方永远不会结束
+        try (ResponseContext context = new ResponseContext(response)) {
+            handleResponse(call, context);
+        } finally {
+            countDownLatch.countDown();
+        }
     }
 
 
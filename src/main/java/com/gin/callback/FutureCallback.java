@@ -0,0 +1,83 @@
+package com.gin.callback;
+
+import com.gin.entity.ResponseContext;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jsoup.HttpStatusException;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 将响应结果写入 CompletableFuture 的Callback
+ * <p>指定了解析线程池时, 在网络线程只读取响应体, 处理方法在解析线程池中执行; 线程池拒绝时在网络线程执行.
+ * 处理方法只需要响应头时不读取响应体, 见 {@link ResponseHandler#headerOnly(ResponseHandler)}</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 10:12
+ */
+public class FutureCallback<T> implements Callback {
+    private final CompletableFuture<T> future;
+    private final ResponseHandler<T> handler;
+    /**
+     * 解析线程池, 为 null 时在网络线程解析
+     */
+    private final Executor executor;
+
+    public FutureCallback(CompletableFuture<T> future, ResponseHandler<T> handler) {
+        this(future, handler, null);
+    }
+
+    public FutureCallback(CompletableFuture<T> future, ResponseHandler<T> handler, Executor executor) {
+        this.future = future;
+        this.handler = handler;
+        this.executor = executor;
+    }
+
+    @Override
+    public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        future.completeExceptionally(e);
+    }
+
+    @Override
+    public void onResponse(@NotNull Call call, @NotNull Response response) {
+        final boolean readBody = handler.needsBody();
+        final ResponseContext context = new ResponseContext(response, readBody && response.code() < 400);
+        if (executor == null || !readBody) {
+            // 只需要响应头时不读取响应体, 直接处理
+            handle(context);
+            return;
+        }
+        try {
+            checkStatus(context);
+            context.buffer();
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+            context.close();
+            return;
+        }
+        // 解析线程池已满时在当前线程处理
+        BoundedExecutor.executeOrRun(executor, () -> handle(context));
+    }
+
+    private void handle(ResponseContext context) {
+        try {
+            checkStatus(context);
+            future.complete(handler.handle(context));
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            // 处理方法未读取响应体时(如只需要响应头), 直接关闭
+            context.close();
+        }
+    }
+
+    private static void checkStatus(ResponseContext context) throws HttpStatusException {
+        if (context.getCode() >= 400) {
+            throw new HttpStatusException("HTTP error fetching URL", context.getCode(), context.getUrl());
+        }
+    }
+}
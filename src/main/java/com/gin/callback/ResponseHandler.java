@@ -18,4 +18,31 @@ public interface ResponseHandler<T> {
      * @throws IOException 异常
      */
     T handle(ResponseContext context) throws IOException;
-}   
+
+    /**
+     * 是否需要响应体, 为 false 时不读取响应体, 在网络线程直接处理
+     * @return 是否需要
+     */
+    default boolean needsBody() {
+        return true;
+    }
+
+    /**
+     * 只读取响应头的处理方法, 如取重定向地址
+     * @param handler 处理方法
+     * @return 不读取响应体的处理方法
+     */
+    static <T> ResponseHandler<T> headerOnly(ResponseHandler<T> handler) {
+        return new ResponseHandler<T>() {
+            @Override
+            public T handle(ResponseContext context) throws IOException {
+                return handler.handle(context);
+            }
+
+            @Override
+            public boolean needsBody() {
+                return false;
+            }
+        };
+    }
+}
@@ -0,0 +1,71 @@
+package com.gin.client;
+
+import okhttp3.Dns;
+import org.jetbrains.annotations.NotNull;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带缓存的DNS解析, 缓存过期后重新解析, 解析失败时继续使用过期的结果
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 23:55
+ */
+public class CachingDns implements Dns {
+    private final Dns delegate;
+    /**
+     * 缓存时间(毫秒)
+     */
+    private final long ttl;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    public CachingDns(long ttl) {
+        this(Dns.SYSTEM, ttl);
+    }
+
+    public CachingDns(Dns delegate, long ttl) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+    }
+
+    @NotNull
+    @Override
+    public List<InetAddress> lookup(@NotNull String hostname) throws UnknownHostException {
+        final Entry entry = cache.get(hostname);
+        final long now = System.currentTimeMillis();
+        if (entry != null && now < entry.expiresAt) {
+            return entry.addresses;
+        }
+        try {
+            final List<InetAddress> addresses = delegate.lookup(hostname);
+            cache.put(hostname, new Entry(addresses, now + ttl));
+            return addresses;
+        } catch (UnknownHostException e) {
+            if (entry != null) {
+                return entry.addresses;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private static class Entry {
+        final List<InetAddress> addresses;
+        final long expiresAt;
+
+        Entry(List<InetAddress> addresses, long expiresAt) {
+            this.addresses = addresses;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.gin.client;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 客户端配置: 连接池大小与保活时间, HTTP/2, 超时, DNS缓存, Dispatcher 的并发上限
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 23:50
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ClientProfile {
+    /**
+     * 连接池保留的最大空闲连接数
+     */
+    int maxIdleConnections = 16;
+    /**
+     * 空闲连接的保活时间(秒)
+     */
+    long keepAliveSeconds = 5 * 60;
+    /**
+     * 是否在服务器支持时使用 HTTP/2 (通过 ALPN 协商, 不支持时使用 HTTP/1.1)
+     */
+    boolean http2 = true;
+    /**
+     * 连接超时(秒)
+     */
+    long connectTimeoutSeconds = 30;
+    /**
+     * 读取超时(秒)
+     */
+    long readTimeoutSeconds = 30;
+    /**
+     * 写入超时(秒)
+     */
+    long writeTimeoutSeconds = 30;
+    /**
+     * 整个请求的超时(秒), 为0时不限制
+     */
+    long callTimeoutSeconds = 0;
+    /**
+     * DNS缓存时间(秒), 为0时不缓存. 使用HTTP代理时只解析代理地址
+     */
+    long dnsCacheSeconds = 10 * 60;
+    /**
+     * Dispatcher 同时进行的请求数上限. 实际并发由 {@link com.gin.limiter.AdaptiveConcurrencyLimiter} 决定, 这里只作为上限
+     */
+    int maxRequests = 128;
+    /**
+     * Dispatcher 每个域名同时进行的请求数上限
+     */
+    int maxRequestsPerHost = 64;
+
+    /**
+     * 按配置创建客户端
+     * @return okHttpClient
+     */
+    public OkHttpClient build() {
+        return apply(new OkHttpClient.Builder()).build();
+    }
+
+    /**
+     * 将配置应用到已有的 builder
+     * @param builder builder
+     * @return builder
+     */
+    public OkHttpClient.Builder apply(OkHttpClient.Builder builder) {
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        builder.dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .connectTimeout(connectTimeoutSeconds, TimeUnit.SECONDS)
+                .readTimeout(readTimeoutSeconds, TimeUnit.SECONDS)
+                .writeTimeout(writeTimeoutSeconds, TimeUnit.SECONDS)
+                .callTimeout(callTimeoutSeconds, TimeUnit.SECONDS)
+                .protocols(http2 ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1) : Collections.singletonList(Protocol.HTTP_1_1));
+        if (dnsCacheSeconds > 0) {
+            builder.dns(new CachingDns(TimeUnit.SECONDS.toMillis(dnsCacheSeconds)));
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,45 @@
+package com.gin.download;
+
+import java.nio.file.Path;
+
+/**
+ * 下载进度回调, 在下载线程中调用
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 15:12
+ */
+public interface DownloadListener {
+    /**
+     * 单个文件的下载进度
+     * @param task       任务
+     * @param downloaded 已下载字节数(含续传前已下载的部分)
+     * @param total      总字节数, 未知时为 -1
+     */
+    default void onProgress(DownloadTask task, long downloaded, long total) {
+    }
+
+    /**
+     * 单个文件下载完成
+     * @param task 任务
+     * @param path 文件路径
+     */
+    default void onComplete(DownloadTask task, Path path) {
+    }
+
+    /**
+     * 单个文件下载失败(已达到重试上限)
+     * @param url 下载地址, 请求原图地址失败时为图片详情页地址
+     * @param e   原因
+     */
+    default void onFailure(String url, Throwable e) {
+    }
+
+    /**
+     * 一批(一个画廊)的整体进度, 每个文件完成或失败后调用
+     * @param finished 已完成数
+     * @param failed   失败数
+     * @param total    总数
+     */
+    default void onBatchProgress(int finished, int failed, int total) {
+    }
+}
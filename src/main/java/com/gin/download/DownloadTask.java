@@ -0,0 +1,36 @@
+package com.gin.download;
+
+import com.gin.identity.Identity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.file.Path;
+
+/**
+ * 下载任务
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 15:10
+ */
+@Getter
+@AllArgsConstructor
+public class DownloadTask {
+    /**
+     * 下载地址
+     */
+    final String url;
+    /**
+     * 保存路径
+     */
+    final Path target;
+    /**
+     * 下载使用的身份, 为 null 时自动分配
+     */
+    @Nullable
+    final Identity identity;
+
+    public DownloadTask(String url, Path target) {
+        this(url, target, null);
+    }
+}
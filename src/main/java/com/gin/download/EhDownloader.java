@@ -0,0 +1,342 @@
+package com.gin.download;
+
+import com.gin.api.EhApi;
+import com.gin.api.EhClient;
+import com.gin.entity.BatchResult;
+import com.gin.entity.Gallery;
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.journal.CrawlJournal;
+import com.gin.quota.ImageQuotaGovernor;
+import com.gin.retry.RetryPolicy;
+import com.gin.utils.FutureUtils;
+import okhttp3.HttpUrl;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import org.jsoup.HttpStatusException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 图片下载器
+ * <p>固定数量的下载线程; 响应体直接写入 FileChannel; 先写入 .part 临时文件, 完成后重命名;
+ * 临时文件已存在时使用 Range 请求续传</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 15:20
+ */
+public class EhDownloader implements Closeable {
+    /**
+     * 临时文件后缀
+     */
+    public static final String PART_SUFFIX = ".part";
+    /**
+     * 每次写入文件的最大字节数, 也是进度回调的粒度
+     */
+    private static final long CHUNK_SIZE = 64 * 1024;
+    /**
+     * 最多跟随的重定向次数
+     */
+    private static final int MAX_REDIRECTS = 5;
+
+    private final EhApi api;
+    private final EhClient client;
+    private final ExecutorService executor;
+    /**
+     * 正在写入的临时文件, 同一文件同时只有一个任务写入
+     */
+    private final Set<Path> writing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param api     api
+     * @param threads 下载线程数
+     */
+    public EhDownloader(EhApi api, int threads) {
+        this.api = api;
+        this.client = api.getClient();
+        final AtomicInteger count = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            final Thread thread = new Thread(r, "eh-downloader-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 下载一个画廊的所有图片: 请求原图地址, 每得到一个地址立即开始下载. 已存在的文件直接跳过
+     * @param gallery  画廊
+     * @param dir      保存目录
+     * @param listener 进度回调
+     * @return future, 结果以下载地址为key, 请求原图地址失败的以图片详情页地址为key
+     */
+    public CompletableFuture<BatchResult<Path>> downloadGallery(Gallery gallery, Path dir, DownloadListener listener) {
+        final List<GalleryImageThumbnail> thumbnails = gallery.getThumbnails();
+        // 按位置对应文件名: 紧凑存储的列表每次 get 返回新对象, 不能以对象为key
+        final String[] filenames = getFilenames(thumbnails);
+        // 尚未下载的图片的位置和详情页地址
+        final List<Integer> positions = new ArrayList<>();
+        final List<String> urls = new ArrayList<>();
+        for (int i = 0; i < filenames.length; i++) {
+            if (!Files.exists(dir.resolve(filenames[i]))) {
+                positions.add(i);
+                urls.add(thumbnails.get(i).getImagePageUrl());
+            }
+        }
+        final Batch batch = new Batch(urls.size(), listener);
+        final List<CompletableFuture<Void>> downloads = Collections.synchronizedList(new ArrayList<>());
+        return api.getOriginalUrlsAsync(urls, EhApi.DEFAULT_CONCURRENCY, result -> {
+            if (result.isSuccess()) {
+                final Path target = dir.resolve(filenames[positions.get(result.getIndex())]);
+                downloads.add(submit(new DownloadTask(result.getOriginalUrl(), target, result.getIdentity()), batch));
+            } else {
+                batch.fail(result.getImagePageUrl(), result.getError());
+            }
+        }).thenCompose(list -> CompletableFuture.allOf(downloads.toArray(new CompletableFuture[0])))
+                .thenApply(v -> batch.result);
+    }
+
+    /**
+     * 下载多个文件
+     * @param tasks    任务
+     * @param listener 进度回调
+     * @return future, 结果以下载地址为key
+     */
+    public CompletableFuture<BatchResult<Path>> download(Collection<DownloadTask> tasks, DownloadListener listener) {
+        final Batch batch = new Batch(tasks.size(), listener);
+        final CompletableFuture<?>[] futures = tasks.stream().map(task -> submit(task, batch)).toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures).thenApply(v -> batch.result);
+    }
+
+    /**
+     * 同步下载一个文件, 失败时按客户端的重试策略重试, 重试时从已下载的位置续传. 设置了限额控制时先申请额度;
+     * 设置了抓取日志时, 完成的下载写入日志
+     * @param task     任务
+     * @param listener 进度回调
+     * @return 文件路径
+     */
+    public Path download(DownloadTask task, DownloadListener listener) throws IOException, InterruptedException {
+        final ImageQuotaGovernor governor = api.getQuotaGovernor();
+        if (governor != null && !Files.exists(task.getTarget())) {
+            FutureUtils.await(governor.acquire(governor.getDownloadCost()));
+        }
+        final RetryPolicy retryPolicy = client.getRetryPolicy();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                final Path path = downloadOnce(task, listener);
+                final CrawlJournal journal = api.getJournal();
+                if (journal != null && !journal.isDownloaded(path)) {
+                    journal.recordDownload(path, Files.size(path));
+                }
+                return path;
+            } catch (IOException e) {
+                if (!retryPolicy.canRetry(attempt, e)) {
+                    throw e;
+                }
+                Thread.sleep(retryPolicy.getDelayMillis(attempt));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private CompletableFuture<Void> submit(DownloadTask task, Batch batch) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                final Path path = download(task, batch.listener);
+                batch.complete(task, path);
+            } catch (Exception e) {
+                batch.fail(task.getUrl(), e);
+            }
+        }, executor);
+    }
+
+    private Path downloadOnce(DownloadTask task, DownloadListener listener) throws IOException {
+        final Path target = task.getTarget();
+        if (Files.exists(target)) {
+            return target;
+        }
+        final Path parent = target.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        final Path temp = target.resolveSibling(target.getFileName() + PART_SUFFIX).toAbsolutePath().normalize();
+        if (!writing.add(temp)) {
+            throw new IOException("文件正在被另一个任务下载: " + target);
+        }
+        try {
+            writeTemp(task, temp, listener);
+        } finally {
+            writing.remove(temp);
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return target;
+    }
+
+    /**
+     * 下载到临时文件, 临时文件已存在时续传
+     */
+    private void writeTemp(DownloadTask task, Path temp, DownloadListener listener) throws IOException {
+        final long offset = Files.exists(temp) ? Files.size(temp) : 0;
+
+        String url = task.getUrl();
+        Response response = client.getRange(url, offset, task.getIdentity());
+        for (int i = 0; response.isRedirect() && i < MAX_REDIRECTS; i++) {
+            // Location 可能是相对地址
+            final String location = response.header("Location");
+            final HttpUrl next = location != null ? response.request().url().resolve(location) : null;
+            response.close();
+            if (next == null) {
+                throw new IOException("无效的重定向地址: " + location + " : " + url);
+            }
+            url = next.toString();
+            response = client.getRange(url, offset, task.getIdentity());
+        }
+        try {
+            if (response.isRedirect()) {
+                throw new IOException("重定向次数过多: " + url);
+            }
+            final int code = response.code();
+            final ResponseBody body = response.body();
+            if (code >= 400 || body == null) {
+                if (code == 416) {
+                    // 临时文件与服务器上的文件不一致, 重新下载
+                    Files.deleteIfExists(temp);
+                }
+                throw new HttpStatusException("HTTP error fetching URL", code, url);
+            }
+            // 服务器不支持 Range 时返回完整文件
+            final long start = code == 206 ? offset : 0;
+            if (code == 206 && parseRangeStart(response.header("Content-Range")) != offset) {
+                // 返回的范围与临时文件接不上, 删除后重新下载
+                Files.deleteIfExists(temp);
+                throw new IOException("Content-Range 与已下载的位置不一致: " + response.header("Content-Range") + " : " + url);
+            }
+            final long total = body.contentLength() >= 0 ? start + body.contentLength() : -1;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                channel.truncate(start);
+                final BufferedSource source = body.source();
+                long position = start;
+                long n;
+                while ((n = channel.transferFrom(source, position, CHUNK_SIZE)) > 0) {
+                    position += n;
+                    listener.onProgress(task, position, total);
+                }
+                if (total >= 0 && position < total) {
+                    throw new IOException("下载不完整: " + position + "/" + total + " : " + url);
+                }
+                channel.force(true);
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * 解析 Content-Range 的起始位置, 形如 "bytes 100-199/200"
+     * @param contentRange Content-Range
+     * @return 起始位置, 无法解析时为 -1
+     */
+    private static long parseRangeStart(String contentRange) {
+        if (contentRange == null || !contentRange.startsWith("bytes ")) {
+            return -1;
+        }
+        final int dash = contentRange.indexOf('-', 6);
+        if (dash < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(6, dash).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 画廊中每张图片保存的文件名, 重名的文件名后加上序号, 避免写入同一文件
+     * @param thumbnails 缩略图
+     * @return 文件名, 顺序与缩略图一致
+     */
+    private static String[] getFilenames(List<GalleryImageThumbnail> thumbnails) {
+        final String[] filenames = new String[thumbnails.size()];
+        final Set<String> used = new HashSet<>();
+        for (int position = 0; position < filenames.length; position++) {
+            final GalleryImageThumbnail thumbnail = thumbnails.get(position);
+            String filename = getFilename(thumbnail);
+            if (!used.add(filename.toLowerCase(Locale.ROOT))) {
+                final int dot = filename.lastIndexOf('.');
+                final String base = dot > 0 ? filename.substring(0, dot) : filename;
+                final String extension = dot > 0 ? filename.substring(dot) : "";
+                filename = base + "_" + thumbnail.getIndex() + extension;
+                for (int i = 2; !used.add(filename.toLowerCase(Locale.ROOT)); i++) {
+                    filename = base + "_" + thumbnail.getIndex() + "_" + i + extension;
+                }
+            }
+            filenames[position] = filename;
+        }
+        return filenames;
+    }
+
+    /**
+     * 保存的文件名, 替换文件系统不允许的字符
+     * @param thumbnail 缩略图
+     * @return 文件名
+     */
+    private static String getFilename(GalleryImageThumbnail thumbnail) {
+        final String filename = thumbnail.getFilename() != null ? thumbnail.getFilename() : String.valueOf(thumbnail.getIndex());
+        return filename.replaceAll("[\\\\/:*?\"<>|]", "_");
+    }
+
+    /**
+     * 一批下载的结果和进度
+     */
+    private static class Batch {
+        final BatchResult<Path> result = new BatchResult<>();
+        final DownloadListener listener;
+        final int total;
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        Batch(int total, DownloadListener listener) {
+            this.total = total;
+            this.listener = listener;
+        }
+
+        void complete(DownloadTask task, Path path) {
+            result.getSuccesses().put(task.getUrl(), path);
+            listener.onComplete(task, path);
+            listener.onBatchProgress(finished.incrementAndGet(), failed.get(), total);
+        }
+
+        void fail(String url, Throwable e) {
+            result.getFailures().put(url, e);
+            listener.onFailure(url, e);
+            listener.onBatchProgress(finished.get(), failed.incrementAndGet(), total);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.gin.entity;
+
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量请求的结果, 区分成功、最终失败和截止时仍未完成的地址
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 11:20
+ */
+@Getter
+public class BatchResult<T> {
+    /**
+     * 成功的结果, 以请求地址为key
+     */
+    private final Map<String, T> successes = new ConcurrentHashMap<>();
+    /**
+     * 重试后仍然失败的地址, 以及最后一次失败的原因
+     */
+    private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    /**
+     * 重试次数(不含第一次请求)
+     */
+    private final AtomicInteger retries = new AtomicInteger();
+    /**
+     * 到达截止时间时仍未完成的地址
+     */
+    private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 是否全部成功
+     * @return 是否全部成功
+     */
+    public boolean isSuccess() {
+        return failures.isEmpty() && missing.isEmpty();
+    }
+
+    /**
+     * 是否在截止时间前全部完成(含失败)
+     * @return 是否
+     */
+    public boolean isComplete() {
+        return missing.isEmpty();
+    }
+}
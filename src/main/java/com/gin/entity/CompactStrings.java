@@ -0,0 +1,87 @@
+package com.gin.entity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 紧凑存储的一列字符串: 提取公共前缀, 其余部分以UTF-8连续存放在一个 byte[] 中
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 23:40
+ */
+class CompactStrings {
+    private final String prefix;
+    private final byte[] data;
+    /**
+     * 第 i 个字符串在 data 中的范围为 [offsets[i], offsets[i+1])
+     */
+    private final int[] offsets;
+    private final BitSet nulls;
+
+    CompactStrings(List<String> values) {
+        this.prefix = commonPrefix(values);
+        final byte[][] suffixes = new byte[values.size()][];
+        final BitSet nulls = new BitSet(values.size());
+        int total = 0;
+        for (int i = 0; i < values.size(); i++) {
+            final String value = values.get(i);
+            if (value == null) {
+                nulls.set(i);
+                suffixes[i] = new byte[0];
+            } else {
+                suffixes[i] = value.substring(prefix.length()).getBytes(StandardCharsets.UTF_8);
+            }
+            total += suffixes[i].length;
+        }
+        this.data = new byte[total];
+        this.offsets = new int[values.size() + 1];
+        int offset = 0;
+        for (int i = 0; i < suffixes.length; i++) {
+            offsets[i] = offset;
+            System.arraycopy(suffixes[i], 0, data, offset, suffixes[i].length);
+            offset += suffixes[i].length;
+        }
+        offsets[suffixes.length] = offset;
+        this.nulls = nulls.isEmpty() ? null : nulls;
+    }
+
+    String get(int i) {
+        if (nulls != null && nulls.get(i)) {
+            return null;
+        }
+        final int start = offsets[i];
+        return prefix + new String(data, start, offsets[i + 1] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 占用的字节数(估算)
+     */
+    long sizeInBytes() {
+        return 2L * prefix.length() + data.length + 4L * offsets.length + (nulls != null ? nulls.size() / 8 : 0);
+    }
+
+    private static String commonPrefix(List<String> values) {
+        String prefix = null;
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            if (prefix == null) {
+                prefix = value;
+                continue;
+            }
+            int i = 0;
+            final int max = Math.min(prefix.length(), value.length());
+            while (i < max && prefix.charAt(i) == value.charAt(i)) {
+                i++;
+            }
+            // 不切断代理对
+            if (i > 0 && i < prefix.length() && Character.isHighSurrogate(prefix.charAt(i - 1))) {
+                i--;
+            }
+            prefix = prefix.substring(0, i);
+        }
+        return prefix != null ? prefix : "";
+    }
+}
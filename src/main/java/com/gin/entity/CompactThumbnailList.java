@@ -0,0 +1,79 @@
+package com.gin.entity;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * 紧凑存储的缩略图列表: 序号存放在 int[] 中, 各地址和文件名按列提取公共前缀后存放在 byte[] 中.
+ * <p>只读; {@link #get(int)} 每次创建新的 {@link GalleryImageThumbnail}, 修改它不会影响列表</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 23:45
+ */
+public class CompactThumbnailList extends AbstractList<GalleryImageThumbnail> implements RandomAccess {
+    private final int[] indices;
+    private final CompactStrings imagePageUrls;
+    private final CompactStrings filenames;
+    private final CompactStrings thumbnailUrls;
+
+    public CompactThumbnailList(List<GalleryImageThumbnail> thumbnails) {
+        final int size = thumbnails.size();
+        this.indices = new int[size];
+        final List<String> imagePageUrls = new ArrayList<>(size);
+        final List<String> filenames = new ArrayList<>(size);
+        final List<String> thumbnailUrls = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final GalleryImageThumbnail thumbnail = thumbnails.get(i);
+            indices[i] = thumbnail.getIndex();
+            imagePageUrls.add(thumbnail.getImagePageUrl());
+            filenames.add(thumbnail.getFilename());
+            thumbnailUrls.add(thumbnail.getThumbnailUrl());
+        }
+        this.imagePageUrls = new CompactStrings(imagePageUrls);
+        this.filenames = new CompactStrings(filenames);
+        this.thumbnailUrls = new CompactStrings(thumbnailUrls);
+    }
+
+    @Override
+    public GalleryImageThumbnail get(int i) {
+        final GalleryImageThumbnail thumbnail = new GalleryImageThumbnail();
+        thumbnail.setIndex(indices[i]);
+        thumbnail.setImagePageUrl(imagePageUrls.get(i));
+        thumbnail.setFilename(filenames.get(i));
+        thumbnail.setThumbnailUrl(thumbnailUrls.get(i));
+        return thumbnail;
+    }
+
+    /**
+     * 第 i 张图片的序号, 不创建对象
+     * @param i 位置
+     * @return 序号
+     */
+    public int getIndex(int i) {
+        return indices[i];
+    }
+
+    /**
+     * 第 i 张图片的详情页地址, 不创建缩略图对象
+     * @param i 位置
+     * @return 地址
+     */
+    public String getImagePageUrl(int i) {
+        return imagePageUrls.get(i);
+    }
+
+    @Override
+    public int size() {
+        return indices.length;
+    }
+
+    /**
+     * 估算占用的字节数
+     * @return 字节数
+     */
+    public long sizeInBytes() {
+        return 4L * indices.length + imagePageUrls.sizeInBytes() + filenames.sizeInBytes() + thumbnailUrls.sizeInBytes();
+    }
+}
@@ -58,6 +58,17 @@ public class Gallery {
         this.tag = firstPage.getTag();
     }
 
+    /**
+     * 将缩略图转换为紧凑存储, 用于在内存中长期保存大量画廊. 转换后缩略图列表只读
+     * @return this
+     */
+    public Gallery compact() {
+        if (thumbnails != null && !(thumbnails instanceof CompactThumbnailList)) {
+            thumbnails = new CompactThumbnailList(thumbnails);
+        }
+        return this;
+    }
+
     /**
      * 获取所有分页链接
      * @return 分页链接
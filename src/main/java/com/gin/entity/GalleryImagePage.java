@@ -1,5 +1,6 @@
 package com.gin.entity;
 
+import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.jsoup.nodes.Document;
@@ -14,6 +15,7 @@ import org.jsoup.select.Elements;
  */
 @Getter
 @NoArgsConstructor
+@AllArgsConstructor
 public class GalleryImagePage {
     public static final String ERROR_509 = "https://exhentai.org/img/509.gif";
     /**
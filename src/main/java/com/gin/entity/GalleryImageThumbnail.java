@@ -50,11 +50,33 @@ public class GalleryImageThumbnail {
             final Element e = img.get(0);
             // 缩略图地址
             this.thumbnailUrl = e.attr("src");
-            final Matcher matcher = PATTERN.matcher(e.attr("title"));
-            if (matcher.find()) {
-                this.filename = matcher.group(2);
-                this.index = Integer.parseInt(matcher.group(1));
-            }
+            parseTitle(e.attr("title"));
+        }
+    }
+
+    /**
+     * 用已提取的属性构造
+     * @param imagePageUrl 图片详情页url
+     * @param thumbnailUrl 缩略图url
+     * @param title        缩略图的 title 属性, 形如 "Page 1: 001.jpg"
+     */
+    public GalleryImageThumbnail(String imagePageUrl, String thumbnailUrl, String title) {
+        this.imagePageUrl = imagePageUrl;
+        this.thumbnailUrl = thumbnailUrl;
+        if (title != null) {
+            parseTitle(title);
+        }
+    }
+
+    /**
+     * 从缩略图的 title 中解析序号和文件名
+     * @param title title
+     */
+    private void parseTitle(String title) {
+        final Matcher matcher = PATTERN.matcher(title);
+        if (matcher.find()) {
+            this.filename = matcher.group(2);
+            this.index = Integer.parseInt(matcher.group(1));
         }
     }
 }
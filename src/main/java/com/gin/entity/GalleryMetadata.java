@@ -0,0 +1,153 @@
+package com.gin.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 画廊元数据, 来自 api.php 的 gdata 方法
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 22:40
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class GalleryMetadata {
+    /**
+     * 画廊ID
+     */
+    long id;
+    /**
+     * 画廊随机TAG
+     */
+    String tag;
+    /**
+     * 画廊标题
+     */
+    String title;
+    /**
+     * 日文标题
+     */
+    String titleJp;
+    /**
+     * 分类
+     */
+    String category;
+    /**
+     * 封面地址
+     */
+    String thumb;
+    /**
+     * 上传者
+     */
+    String uploader;
+    /**
+     * 发布时间(秒)
+     */
+    long posted;
+    /**
+     * 图片数量
+     */
+    int fileCount;
+    /**
+     * 总大小(字节)
+     */
+    long fileSize;
+    /**
+     * 是否已删除
+     */
+    boolean expunged;
+    /**
+     * 评分
+     */
+    double rating;
+    /**
+     * 种子数量
+     */
+    int torrentCount;
+    /**
+     * 标签, 格式为 命名空间:标签
+     */
+    List<String> tags;
+    /**
+     * 错误信息, 如id和tag不匹配时
+     */
+    String error;
+
+    /**
+     * 未取得元数据的画廊
+     * @param id    画廊ID
+     * @param tag   画廊随机TAG
+     * @param error 错误信息
+     */
+    public GalleryMetadata(long id, String tag, String error) {
+        this.id = id;
+        this.tag = tag;
+        this.error = error;
+        this.tags = new ArrayList<>();
+    }
+
+    /**
+     * 用 gmetadata 中的一项构造
+     * @param json JSON对象
+     */
+    public GalleryMetadata(Map<?, ?> json) {
+        this.id = toLong(json.get("gid"));
+        this.tag = toString(json.get("token"));
+        this.error = toString(json.get("error"));
+        this.title = toString(json.get("title"));
+        this.titleJp = toString(json.get("title_jpn"));
+        this.category = toString(json.get("category"));
+        this.thumb = toString(json.get("thumb"));
+        this.uploader = toString(json.get("uploader"));
+        this.posted = toLong(json.get("posted"));
+        this.fileCount = (int) toLong(json.get("filecount"));
+        this.fileSize = toLong(json.get("filesize"));
+        this.expunged = Boolean.TRUE.equals(json.get("expunged"));
+        this.rating = toDouble(json.get("rating"));
+        this.torrentCount = (int) toLong(json.get("torrentcount"));
+        this.tags = new ArrayList<>();
+        final Object tags = json.get("tags");
+        if (tags instanceof List) {
+            ((List<?>) tags).forEach(t -> this.tags.add(String.valueOf(t)));
+        }
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * api 的数字有时以字符串返回
+     */
+    private static long toLong(Object o) {
+        if (o instanceof Number) {
+            return ((Number) o).longValue();
+        }
+        try {
+            return o != null ? Long.parseLong(o.toString()) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static double toDouble(Object o) {
+        if (o instanceof Number) {
+            return ((Number) o).doubleValue();
+        }
+        try {
+            return o != null ? Double.parseDouble(o.toString()) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String toString(Object o) {
+        return o != null ? o.toString() : null;
+    }
+}
@@ -8,6 +8,7 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -70,23 +71,58 @@ public class GalleryPage {
         // 所有页链接
         final Elements pages = pager.getElementsByTag("a");
         //最大页
-        this.maxPages = pages.stream().map(Element::ownText).mapToInt(s -> {
+        this.maxPages = parseMaxPages(pages.stream().map(Element::ownText).collect(Collectors.toList()));
+        //第一页的url
+        parseFirstUrl(pages.stream().filter(e -> "1".equals(e.ownText())).map(e -> e.attr("href")).findFirst().orElse(null));
+
+        this.thumbnails = document.getElementsByClass("gdtl").stream().map(GalleryImageThumbnail::new).collect(Collectors.toList());
+    }
+
+    /**
+     * 用已提取的属性构造
+     * @param title      画廊标题
+     * @param titleJp    日文标题
+     * @param page       当前页
+     * @param pagerTexts 翻页组件中所有链接的文本
+     * @param firstUrl   第一页的url
+     * @param thumbnails 缩略图
+     */
+    public GalleryPage(String title, String titleJp, int page, Collection<String> pagerTexts, String firstUrl,
+                       List<GalleryImageThumbnail> thumbnails) {
+        this.title = title;
+        this.titleJp = titleJp;
+        this.page = page;
+        this.maxPages = parseMaxPages(pagerTexts);
+        parseFirstUrl(firstUrl);
+        this.thumbnails = thumbnails;
+    }
+
+    /**
+     * 从翻页组件的链接文本中解析最大页
+     * @param texts 链接文本
+     * @return 最大页
+     */
+    private static int parseMaxPages(Collection<String> texts) {
+        return texts.stream().mapToInt(s -> {
             try {
                 return Integer.parseInt(s);
             } catch (NumberFormatException e) {
                 return 0;
             }
         }).filter(i -> i > 0).max().orElse(0);
-        //第一页的url
-        final String firstUrl = pages.stream().filter(e -> "1".equals(e.ownText())).map(e -> e.attr("href")).findFirst().orElse(null);
+    }
+
+    /**
+     * 根据第一页的url设置id和tag
+     * @param firstUrl 第一页的url
+     */
+    private void parseFirstUrl(String firstUrl) {
         if (firstUrl != null) {
             // 解析id和tag
             final GalleryIdTag galleryIdTag = new GalleryIdTag(firstUrl);
             this.id = galleryIdTag.getId();
             this.tag = galleryIdTag.getTag();
         }
-
-        this.thumbnails = document.getElementsByClass("gdtl").stream().map(GalleryImageThumbnail::new).collect(Collectors.toList());
     }
 
     public List<String> getAllPages() {
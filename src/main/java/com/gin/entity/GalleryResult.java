@@ -0,0 +1,31 @@
+package com.gin.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 批量请求画廊时单个画廊的结果
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 21:30
+ */
+@Getter
+@AllArgsConstructor
+public class GalleryResult {
+    /**
+     * 请求的地址(去重后保留的第一个)
+     */
+    final String url;
+    /**
+     * 画廊, 失败时为 null
+     */
+    final Gallery gallery;
+    /**
+     * 失败原因, 成功时为 null
+     */
+    final Throwable error;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
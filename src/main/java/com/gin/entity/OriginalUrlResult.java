@@ -0,0 +1,49 @@
+package com.gin.entity;
+
+import com.gin.exception.ImageLimitException;
+import com.gin.identity.Identity;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 批量请求原图地址时单个图片的结果
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 14:35
+ */
+@Getter
+@AllArgsConstructor
+public class OriginalUrlResult {
+    /**
+     * 在请求列表中的序号, 从0开始
+     */
+    final int index;
+    /**
+     * 图片详情页地址
+     */
+    final String imagePageUrl;
+    /**
+     * 图片原图地址, 失败时为 null
+     */
+    final String originalUrl;
+    /**
+     * 取得原图地址的身份, 下载时应使用同一身份; 未知时(如来自日志)为 null
+     */
+    final Identity identity;
+    /**
+     * 失败原因, 成功时为 null
+     */
+    final Throwable error;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * 是否因为509(图片限额用完)失败
+     * @return 是否
+     */
+    public boolean isLimited() {
+        return error instanceof ImageLimitException;
+    }
+}
@@ -1,37 +1,232 @@
 package com.gin.entity;
 
+import com.gin.identity.Identity;
 import lombok.Getter;
+import okhttp3.MediaType;
 import okhttp3.Response;
 import okhttp3.ResponseBody;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 
 /**
  * 响应上下文
+ * <p>响应体在第一次访问 {@link #getDocument()} / {@link #getBodyString()} 时才读取,
+ * 解析为 Document 后只保留 Document, {@link #getBodyString()} 由 Document 重新输出;
+ * 需要原文时在解析前调用 {@link #keepRawBody()}.
+ * 读取响应体后自动关闭响应; 未读取时需要调用 {@link #close()}.
+ * 也可以先用 {@link #buffer()} 将响应体读入内存, 再在其他线程解析</p>
  * @author : ginstone
  * @version : v1.0.0
  * @since : 2023/4/1 10:48
  */
-@Getter
-public class ResponseContext {
+public class ResponseContext implements Closeable {
+    @Getter
     private final String url;
+    @Getter
     private final int code;
     /**
      * 重定向地址(原图地址)
      */
+    @Getter
     private final String redirectUrl;
-    private final Document document;
-    private final String bodyString;
+    /**
+     * 发出请求的身份
+     */
+    @Getter
+    private final Identity identity;
+    /**
+     * 尚未读取的响应体
+     */
+    private ResponseBody body;
+    /**
+     * 已读入内存的响应体, 见 {@link #buffer()}
+     */
+    private byte[] bytes;
+    private String charsetName;
+    private Document document;
+    private String bodyString;
+    /**
+     * 解析为 Document 后是否保留原始响应体
+     */
+    private boolean keepRawBody;
+
+    public ResponseContext(Response response) {
+        this(response, true);
+    }
 
-    public ResponseContext(Response response) throws IOException {
+    /**
+     * @param response 响应
+     * @param readBody 是否需要响应体, 为false时只保留响应头, 立即关闭响应体
+     */
+    public ResponseContext(Response response, boolean readBody) {
         this.url = response.request().url().toString();
         this.code = response.code();
-        final ResponseBody body = response.body();
-        this.bodyString = body != null ? body.string() : null;
-        this.document = this.bodyString != null ? Jsoup.parse(this.bodyString) : null;
         this.redirectUrl = response.header("Location");
-        response.close();
+        this.identity = response.request().tag(Identity.class);
+        this.body = response.body();
+        if (!readBody) {
+            close();
+        }
+    }
+
+    private ResponseContext(ResponseContext buffered) {
+        this.url = buffered.url;
+        this.code = buffered.code;
+        this.redirectUrl = buffered.redirectUrl;
+        this.identity = buffered.identity;
+        this.bytes = buffered.bytes;
+        this.charsetName = buffered.charsetName;
+    }
+
+    /**
+     * 只保留响应头, 不读取响应体
+     * @param response 响应
+     * @return 响应上下文
+     */
+    public static ResponseContext headerOnly(Response response) {
+        return new ResponseContext(response, false);
+    }
+
+    /**
+     * 将响应体读入内存并关闭响应, 之后的解析不再进行网络读取. 用于在网络线程读取、在其他线程解析
+     */
+    public synchronized void buffer() throws IOException {
+        if (this.body != null) {
+            try {
+                this.charsetName = charsetName(this.body);
+                this.bytes = this.body.bytes();
+            } finally {
+                close();
+            }
+        }
+    }
+
+    /**
+     * 解析为 Document 后仍保留原始响应体, 之后 {@link #getBodyString()} / {@link #getBodyReader()} 返回原文.
+     * 需要在 {@link #getDocument()} 之前调用, 代价是同时保留两种形式
+     * @return this
+     */
+    public synchronized ResponseContext keepRawBody() {
+        this.keepRawBody = true;
+        return this;
+    }
+
+    /**
+     * 复制已读入内存的响应, 副本各自解析, 共享同一份响应体. 用于将一次请求的结果交给多个处理方法
+     * @return 副本
+     * @throws IllegalStateException 尚未调用 {@link #buffer()}, 或已解析/转为字符串且未保留原始响应体
+     */
+    public synchronized ResponseContext copy() {
+        if (this.body != null || this.bytes == null && (this.document != null || this.bodyString != null)) {
+            throw new IllegalStateException("只能复制已读入内存且未解析的响应");
+        }
+        return new ResponseContext(this);
+    }
+
+    /**
+     * 解析后的 Document, 第一次访问时读取并解析响应体
+     * @return Document, 只读响应头时为 null
+     */
+    public synchronized Document getDocument() throws IOException {
+        if (this.document == null) {
+            if (this.keepRawBody) {
+                buffer();
+            }
+            if (this.bodyString != null) {
+                this.document = Jsoup.parse(this.bodyString, this.url);
+            } else if (this.bytes != null) {
+                this.document = Jsoup.parse(new ByteArrayInputStream(this.bytes), this.charsetName, this.url);
+            } else if (this.body != null) {
+                try {
+                    this.document = Jsoup.parse(this.body.byteStream(), charsetName(this.body), this.url);
+                } finally {
+                    close();
+                }
+            }
+            if (this.document != null && !this.keepRawBody) {
+                // 只保留一种形式
+                this.bytes = null;
+                this.bodyString = null;
+            }
+        }
+        return this.document;
+    }
+
+    /**
+     * 响应体字符串, 第一次访问时读取. 已解析为 Document 且未调用 {@link #keepRawBody()} 时由 Document 重新输出, 与原文可能不同
+     * @return 响应体, 只读响应头时为 null
+     */
+    public synchronized String getBodyString() throws IOException {
+        if (this.bodyString == null) {
+            if (this.document != null && this.bytes == null) {
+                // 不缓存, 保持只有一种形式
+                return this.document.outerHtml();
+            }
+            if (this.bytes != null) {
+                this.bodyString = new String(this.bytes, bufferCharset());
+                this.bytes = null;
+            } else if (this.body != null) {
+                try {
+                    this.bodyString = this.body.string();
+                } finally {
+                    close();
+                }
+            }
+        }
+        return this.bodyString;
+    }
+
+    /**
+     * 以字符流方式读取响应体, 用于不构建 Document 的流式解析. 调用方负责关闭.
+     * 已解析为 Document 且未保留原始响应体时读取重新输出的HTML
+     * @return Reader, 只读响应头时为 null
+     */
+    public synchronized Reader getBodyReader() {
+        if (this.document != null && this.bodyString == null && this.bytes == null) {
+            return new StringReader(this.document.outerHtml());
+        }
+        if (this.bodyString != null) {
+            return new StringReader(this.bodyString);
+        }
+        if (this.bytes != null) {
+            return new InputStreamReader(new ByteArrayInputStream(this.bytes), bufferCharset());
+        }
+        if (this.body != null) {
+            // 响应体交由Reader关闭
+            final Reader reader = this.body.charStream();
+            this.body = null;
+            return reader;
+        }
+        return null;
+    }
+
+    /**
+     * 关闭尚未读取的响应体, 已读取的内容不受影响
+     */
+    @Override
+    public synchronized void close() {
+        if (this.body != null) {
+            this.body.close();
+            this.body = null;
+        }
+    }
+
+    private Charset bufferCharset() {
+        return this.charsetName != null ? Charset.forName(this.charsetName) : StandardCharsets.UTF_8;
+    }
+
+    private static String charsetName(ResponseBody body) {
+        final MediaType contentType = body.contentType();
+        final Charset charset = contentType != null ? contentType.charset() : null;
+        return charset != null ? charset.name() : null;
     }
 }
@@ -0,0 +1,15 @@
+package com.gin.exception;
+
+import java.io.IOException;
+
+/**
+ * 图片限额已用完(509)
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 14:30
+ */
+public class ImageLimitException extends IOException {
+    public ImageLimitException(String message) {
+        super(message);
+    }
+}
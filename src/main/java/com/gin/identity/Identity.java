@@ -0,0 +1,112 @@
+package com.gin.identity;
+
+import com.gin.entity.ImageLimit;
+import lombok.Getter;
+import org.jetbrains.annotations.Nullable;
+
+import java.net.Proxy;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 请求身份: 一组 cookie + 代理, 各自有独立的图像限额和带宽
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 23:10
+ */
+public class Identity {
+    /**
+     * 名称, 用于区分身份和指标
+     */
+    @Getter
+    private final String name;
+    @Getter
+    private final String cookie;
+    /**
+     * 代理, 为 null 时直连
+     */
+    @Getter
+    @Nullable
+    private final Proxy proxy;
+    /**
+     * 进行中的请求数
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+    /**
+     * 连续超时次数
+     */
+    private final AtomicInteger timeouts = new AtomicInteger();
+    /**
+     * 被剔除到的时间
+     */
+    @Getter
+    private volatile long ejectedUntil;
+    /**
+     * 最近一次查询到的图像限额, 未知时为 null
+     */
+    @Getter
+    private volatile ImageLimit imageLimit;
+
+    public Identity(String name, String cookie, @Nullable Proxy proxy) {
+        this.name = name;
+        this.cookie = cookie;
+        this.proxy = proxy;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * 是否可用(未被剔除)
+     * @return 是否
+     */
+    public boolean isAvailable() {
+        return System.currentTimeMillis() >= ejectedUntil;
+    }
+
+    /**
+     * 图像限额的用量比例, 未知时为0
+     * @return 比例
+     */
+    public double getUsage() {
+        final ImageLimit limit = this.imageLimit;
+        if (limit == null || limit.getCurrent() == null || limit.getMax() == null || limit.getMax() <= 0) {
+            return 0;
+        }
+        return (double) limit.getCurrent() / limit.getMax();
+    }
+
+    void acquire() {
+        inFlight.incrementAndGet();
+    }
+
+    void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * 记录一次超时
+     * @return 连续超时次数
+     */
+    int onTimeout() {
+        return timeouts.incrementAndGet();
+    }
+
+    void onSuccess() {
+        timeouts.set(0);
+    }
+
+    void eject(long millis) {
+        ejectedUntil = Math.max(ejectedUntil, System.currentTimeMillis() + millis);
+        timeouts.set(0);
+    }
+
+    void setImageLimit(ImageLimit imageLimit) {
+        this.imageLimit = imageLimit;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,182 @@
+package com.gin.identity;
+
+import com.gin.entity.ImageLimit;
+import lombok.Getter;
+import lombok.Setter;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.InterruptedIOException;
+import java.net.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 身份池: 请求分配给进行中请求最少的可用身份, 图像限额按身份分别计算
+ * <p>遇到509或连续超时的身份被剔除一段时间; 所有身份都被剔除时使用最早恢复的身份</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 23:15
+ */
+public class IdentityPool {
+    private final List<Identity> identities = new CopyOnWriteArrayList<>();
+    /**
+     * 遇到509时的剔除时长(毫秒)
+     */
+    @Getter
+    @Setter
+    private long limitEjectMillis = 10 * 60 * 1000;
+    /**
+     * 连续超时后的剔除时长(毫秒)
+     */
+    @Getter
+    @Setter
+    private long timeoutEjectMillis = 30 * 1000;
+    /**
+     * 剔除前允许的连续超时次数
+     */
+    @Getter
+    @Setter
+    private int maxTimeouts = 2;
+    /**
+     * 轮流作为选择的起点, 负载相同时分散到各身份
+     */
+    private int next;
+
+    /**
+     * 只有一个身份的池
+     * @param cookie cookie
+     * @param proxy  代理, 为 null 时直连
+     * @return 身份池
+     */
+    public static IdentityPool single(String cookie, @Nullable Proxy proxy) {
+        return new IdentityPool().add("default", cookie, proxy);
+    }
+
+    /**
+     * 添加身份
+     * @param name   名称
+     * @param cookie cookie
+     * @param proxy  代理, 为 null 时直连
+     * @return this
+     */
+    public IdentityPool add(String name, String cookie, @Nullable Proxy proxy) {
+        return add(new Identity(name, cookie, proxy));
+    }
+
+    public IdentityPool add(Identity identity) {
+        identities.add(identity);
+        return this;
+    }
+
+    public List<Identity> getIdentities() {
+        return Collections.unmodifiableList(identities);
+    }
+
+    /**
+     * 选择进行中请求最少的可用身份, 相同时选图像限额用量低的, 并计入进行中
+     * @return 身份
+     */
+    public synchronized Identity select() {
+        final int size = identities.size();
+        if (size == 0) {
+            throw new IllegalStateException("身份池为空");
+        }
+        Identity best = null;
+        Identity earliest = null;
+        for (int i = 0; i < size; i++) {
+            final Identity identity = identities.get((next + i) % size);
+            if (!identity.isAvailable()) {
+                if (earliest == null || identity.getEjectedUntil() < earliest.getEjectedUntil()) {
+                    earliest = identity;
+                }
+                continue;
+            }
+            if (best == null || identity.getInFlight() < best.getInFlight()
+                    || (identity.getInFlight() == best.getInFlight() && identity.getUsage() < best.getUsage())) {
+                best = identity;
+            }
+        }
+        next = (next + 1) % size;
+        final Identity selected = best != null ? best : earliest;
+        selected.acquire();
+        return selected;
+    }
+
+    /**
+     * 使用指定的身份发起请求, 计入进行中
+     * @param identity 身份
+     */
+    public void acquire(Identity identity) {
+        identity.acquire();
+    }
+
+    /**
+     * 请求结束
+     * @param identity 身份
+     * @param error    失败原因, 成功时为 null
+     */
+    public void release(Identity identity, @Nullable Throwable error) {
+        identity.release();
+        if (error == null) {
+            identity.onSuccess();
+        } else if (error instanceof InterruptedIOException && identity.onTimeout() >= maxTimeouts) {
+            identity.eject(timeoutEjectMillis);
+        }
+    }
+
+    /**
+     * 身份遇到509, 剔除一段时间并视为限额已用完
+     * @param identity 身份
+     */
+    public void onLimitReached(Identity identity) {
+        final ImageLimit limit = identity.getImageLimit();
+        if (limit != null && limit.getMax() != null) {
+            identity.setImageLimit(new ImageLimit(limit.getMax(), limit.getMax()));
+        }
+        identity.eject(limitEjectMillis);
+    }
+
+    /**
+     * 更新身份的图像限额
+     * @param identity 身份
+     * @param limit    限额
+     */
+    public void updateImageLimit(Identity identity, @Nullable ImageLimit limit) {
+        if (limit != null) {
+            identity.setImageLimit(limit);
+        }
+    }
+
+    /**
+     * 所有身份的图像限额之和
+     * @return 限额, 都未知时为 null
+     */
+    @Nullable
+    public ImageLimit getImageLimit() {
+        int current = 0;
+        int max = 0;
+        boolean known = false;
+        for (Identity identity : identities) {
+            final ImageLimit limit = identity.getImageLimit();
+            if (limit != null && limit.getCurrent() != null && limit.getMax() != null) {
+                current += limit.getCurrent();
+                max += limit.getMax();
+                known = true;
+            }
+        }
+        return known ? new ImageLimit(current, max) : null;
+    }
+
+    /**
+     * 是否有未被剔除的身份
+     * @return 是否
+     */
+    public boolean hasAvailable() {
+        return identities.stream().anyMatch(Identity::isAvailable);
+    }
+
+    public int size() {
+        return identities.size();
+    }
+}
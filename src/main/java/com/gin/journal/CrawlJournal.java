@@ -0,0 +1,544 @@
+package com.gin.journal;
+
+import com.gin.cache.GalleryPageCodec;
+import com.gin.entity.GalleryPage;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * 抓取日志: 只追加的文件, 记录已完成的画廊页、原图地址和下载, 重启后回放以跳过已完成的工作
+ * <p>每条记录为 长度 + 内容 + CRC32; 写入先进入缓冲区, 按固定间隔批量 fsync.
+ * 打开时回放所有完整的记录, 末尾不完整或校验失败的记录(写入时崩溃)会被截掉.
+ * 画廊页和原图地址带记录时间, 超过有效期后视为未记录, 重新请求后以新记录替换.
+ * 打开时有被替换的记录, 或文件超过 {@link #compactThreshold} 且超过上次整理后大小的两倍时,
+ * 只保留有效的记录重写文件(运行中整理时同时去掉已过期的记录)</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 22:00
+ */
+public class CrawlJournal implements Closeable {
+    /**
+     * 图片详情页地址: /s/{hash}/{画廊id}-{序号}
+     */
+    public static final Pattern IMAGE_PAGE_PATTERN = Pattern.compile("/s/\\w+/(\\d+)-(\\d+)");
+    private static final byte TYPE_PAGE = 1;
+    private static final byte TYPE_ORIGINAL_URL = 2;
+    private static final byte TYPE_DOWNLOAD = 3;
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "eh-journal-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Path file;
+    private FileChannel channel;
+    private DataOutputStream out;
+    private final ScheduledFuture<?> syncTask;
+    /**
+     * 文件大小, 包括缓冲区中尚未写入的部分
+     */
+    private long size;
+    /**
+     * 上次整理后的文件大小
+     */
+    private long compactedSize;
+    private boolean dirty;
+    private boolean closed;
+    /**
+     * 后台 fsync 的失败, 之后的写入、sync 和 close 都抛出该异常
+     */
+    private IOException syncError;
+    /**
+     * 画廊页的有效期(毫秒), 不大于0时不过期
+     */
+    @Getter
+    @Setter
+    private long pageTtl = 24 * 60 * 60 * 1000;
+    /**
+     * 原图地址的有效期(毫秒), 不大于0时不过期
+     */
+    @Getter
+    @Setter
+    private long originalUrlTtl = 60 * 60 * 1000;
+    /**
+     * 整理阈值(字节): 文件超过该大小且超过上次整理后大小的两倍时整理
+     */
+    @Getter
+    @Setter
+    private long compactThreshold = 16 * 1024 * 1024;
+
+    /**
+     * 画廊页地址 -> 画廊页
+     */
+    private final Map<String, Record<GalleryPage>> pages = new ConcurrentHashMap<>();
+    /**
+     * 画廊id -> (页码 -> 画廊页)
+     */
+    private final Map<Long, Map<Integer, Record<GalleryPage>>> galleryPages = new ConcurrentHashMap<>();
+    /**
+     * 图片详情页地址 -> 原图地址
+     */
+    private final Map<String, Record<String>> originalUrls = new ConcurrentHashMap<>();
+    /**
+     * 画廊id -> (图片序号 -> 原图地址)
+     */
+    private final Map<Long, Map<Integer, Record<String>>> galleryOriginalUrls = new ConcurrentHashMap<>();
+    /**
+     * 下载的文件 -> 文件大小
+     */
+    private final Map<String, Long> downloads = new ConcurrentHashMap<>();
+
+    /**
+     * 打开日志, 每秒 fsync 一次
+     * @param file 日志文件
+     */
+    public CrawlJournal(Path file) throws IOException {
+        this(file, 1000);
+    }
+
+    /**
+     * 打开日志
+     * @param file         日志文件
+     * @param syncInterval fsync 间隔(毫秒)
+     */
+    public CrawlJournal(Path file, long syncInterval) throws IOException {
+        final Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.file = file;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        final int records = replay();
+        channel.truncate(size);
+        channel.position(size);
+        this.out = output(channel);
+        this.compactedSize = size;
+        if (records > pages.size() + originalUrls.size() + downloads.size()) {
+            // 有被替换的记录. 过期时间可能在打开后才设置, 这里不去掉已过期的记录
+            compact(false);
+        }
+        this.syncTask = SCHEDULER.scheduleWithFixedDelay(this::syncQuietly, syncInterval, syncInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一个已完成的画廊页, 替换之前的记录
+     * @param url  画廊页地址
+     * @param page 画廊页
+     */
+    public synchronized void recordPage(String url, GalleryPage page) {
+        final Record<GalleryPage> record = new Record<>(page, System.currentTimeMillis());
+        append(TYPE_PAGE, out -> writePage(out, url, record));
+        applyPage(url, record);
+        compactIfNeeded();
+    }
+
+    /**
+     * 记录一个已解析的原图地址, 替换之前的记录. 与未过期的记录相同时不写入
+     * @param imagePageUrl 图片详情页地址
+     * @param originalUrl  原图地址
+     */
+    public synchronized void recordOriginalUrl(String imagePageUrl, String originalUrl) {
+        if (originalUrl.equals(getOriginalUrl(imagePageUrl))) {
+            return;
+        }
+        final Record<String> record = new Record<>(originalUrl, System.currentTimeMillis());
+        append(TYPE_ORIGINAL_URL, out -> writeOriginalUrl(out, imagePageUrl, record));
+        applyOriginalUrl(imagePageUrl, record);
+        compactIfNeeded();
+    }
+
+    /**
+     * 记录一个已完成的下载
+     * @param target 文件
+     * @param size   文件大小
+     */
+    public synchronized void recordDownload(Path target, long size) {
+        final String key = target.toAbsolutePath().normalize().toString();
+        append(TYPE_DOWNLOAD, out -> writeDownload(out, key, size));
+        downloads.put(key, size);
+        compactIfNeeded();
+    }
+
+    /**
+     * 已记录的画廊页
+     * @param url 画廊页地址
+     * @return 画廊页, 未记录或已过期时为 null
+     */
+    public GalleryPage getPage(String url) {
+        return valid(pages.get(url), pageTtl);
+    }
+
+    /**
+     * 一个画廊已完成且未过期的页
+     * @param galleryId 画廊id
+     * @return 页码 -> 画廊页
+     */
+    public Map<Integer, GalleryPage> getPages(long galleryId) {
+        return valid(galleryPages.get(galleryId), pageTtl);
+    }
+
+    /**
+     * 已记录的原图地址
+     * @param imagePageUrl 图片详情页地址
+     * @return 原图地址, 未记录或已过期时为 null
+     */
+    public String getOriginalUrl(String imagePageUrl) {
+        return valid(originalUrls.get(imagePageUrl), originalUrlTtl);
+    }
+
+    /**
+     * 一个画廊已解析且未过期的原图地址
+     * @param galleryId 画廊id
+     * @return 图片序号 -> 原图地址
+     */
+    public Map<Integer, String> getOriginalUrls(long galleryId) {
+        return valid(galleryOriginalUrls.get(galleryId), originalUrlTtl);
+    }
+
+    /**
+     * 文件是否已下载完成, 且大小与记录一致
+     * @param target 文件
+     * @return 是否
+     */
+    public boolean isDownloaded(Path target) {
+        final Long size = downloads.get(target.toAbsolutePath().normalize().toString());
+        try {
+            return size != null && Files.exists(target) && Files.size(target) == size;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 将缓冲区写入文件并 fsync
+     * @throws IOException 写入失败, 或之前后台 fsync 已失败
+     */
+    public synchronized void sync() throws IOException {
+        if (syncError != null) {
+            throw syncError;
+        }
+        if (closed || !dirty) {
+            return;
+        }
+        out.flush();
+        channel.force(false);
+        dirty = false;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        syncTask.cancel(false);
+        try {
+            sync();
+        } finally {
+            closed = true;
+            out.close();
+        }
+    }
+
+    /**
+     * 后台 fsync, 失败时保留异常, 由之后的调用方抛出
+     */
+    private synchronized void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            syncError = e;
+        }
+    }
+
+    private synchronized void append(byte type, RecordWriter writer) {
+        if (closed) {
+            throw new IllegalStateException("日志已关闭");
+        }
+        if (syncError != null) {
+            throw new UncheckedIOException("日志写入失败", syncError);
+        }
+        try {
+            size += writeRecord(out, type, writer);
+            dirty = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 写入一条记录: 长度 + 内容 + CRC32
+     * @return 写入的字节数
+     */
+    private static int writeRecord(DataOutputStream out, byte type, RecordWriter writer) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        final DataOutputStream record = new DataOutputStream(bytes);
+        record.writeByte(type);
+        writer.write(record);
+        record.flush();
+        final CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray(), 0, bytes.size());
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        out.writeInt((int) crc.getValue());
+        return 8 + bytes.size();
+    }
+
+    private void compactIfNeeded() {
+        if (size > compactThreshold && size > 2 * compactedSize) {
+            compact(true);
+        }
+    }
+
+    /**
+     * 只保留有效的记录重写文件: 先写入临时文件并 fsync, 再替换原文件
+     * @param dropExpired 是否去掉已过期的记录
+     */
+    private synchronized void compact(boolean dropExpired) {
+        if (dropExpired) {
+            removeExpired();
+        }
+        final Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        try {
+            try (FileChannel tempChannel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+                 DataOutputStream tempOut = output(tempChannel)) {
+                // 按记录时间写入, 回放后同一页码仍是最新的记录
+                final List<Map.Entry<String, Record<GalleryPage>>> livePages = new ArrayList<>(pages.entrySet());
+                livePages.sort(Comparator.comparingLong(e -> e.getValue().recordedAt));
+                for (Map.Entry<String, Record<GalleryPage>> e : livePages) {
+                    writeRecord(tempOut, TYPE_PAGE, out -> writePage(out, e.getKey(), e.getValue()));
+                }
+                final List<Map.Entry<String, Record<String>>> liveUrls = new ArrayList<>(originalUrls.entrySet());
+                liveUrls.sort(Comparator.comparingLong(e -> e.getValue().recordedAt));
+                for (Map.Entry<String, Record<String>> e : liveUrls) {
+                    writeRecord(tempOut, TYPE_ORIGINAL_URL, out -> writeOriginalUrl(out, e.getKey(), e.getValue()));
+                }
+                for (Map.Entry<String, Long> e : downloads.entrySet()) {
+                    writeRecord(tempOut, TYPE_DOWNLOAD, out -> writeDownload(out, e.getKey(), e.getValue()));
+                }
+                tempOut.flush();
+                tempChannel.force(false);
+            }
+        } catch (IOException e) {
+            // 原文件不受影响, 继续追加
+            deleteQuietly(temp);
+            throw new UncheckedIOException(e);
+        }
+        try {
+            out.close();
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException(e);
+        } finally {
+            reopen();
+        }
+    }
+
+    /**
+     * 打开(整理后的)文件, 在末尾继续追加
+     */
+    private void reopen() {
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            size = channel.size();
+            channel.position(size);
+            out = output(channel);
+            compactedSize = size;
+            dirty = false;
+        } catch (IOException e) {
+            syncError = e;
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void removeExpired() {
+        pages.values().removeIf(record -> record.isExpired(pageTtl));
+        removeExpired(galleryPages, pageTtl);
+        originalUrls.values().removeIf(record -> record.isExpired(originalUrlTtl));
+        removeExpired(galleryOriginalUrls, originalUrlTtl);
+    }
+
+    private static <T> void removeExpired(Map<Long, Map<Integer, Record<T>>> galleries, long ttl) {
+        galleries.values().removeIf(records -> {
+            synchronized (records) {
+                records.values().removeIf(record -> record.isExpired(ttl));
+                return records.isEmpty();
+            }
+        });
+    }
+
+    private static DataOutputStream output(FileChannel channel) {
+        return new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void writePage(DataOutputStream out, String url, Record<GalleryPage> record) throws IOException {
+        out.writeLong(record.recordedAt);
+        writeString(out, url);
+        GalleryPageCodec.write(out, record.value);
+    }
+
+    private static void writeOriginalUrl(DataOutputStream out, String imagePageUrl, Record<String> record) throws IOException {
+        out.writeLong(record.recordedAt);
+        writeString(out, imagePageUrl);
+        writeString(out, record.value);
+    }
+
+    private static void writeDownload(DataOutputStream out, String key, long size) throws IOException {
+        writeString(out, key);
+        out.writeLong(size);
+    }
+
+    /**
+     * 回放日志, {@link #size} 设为最后一条完整记录的结束位置
+     * @return 回放的记录数
+     */
+    private int replay() throws IOException {
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(0))));
+        int records = 0;
+        while (true) {
+            final byte[] bytes;
+            try {
+                final int length = in.readInt();
+                if (length <= 0 || length > channel.size()) {
+                    break;
+                }
+                bytes = new byte[length];
+                in.readFully(bytes);
+                final CRC32 crc = new CRC32();
+                crc.update(bytes, 0, length);
+                if (in.readInt() != (int) crc.getValue()) {
+                    break;
+                }
+            } catch (EOFException e) {
+                break;
+            }
+            apply(new DataInputStream(new ByteArrayInputStream(bytes)));
+            size += 8 + bytes.length;
+            records++;
+        }
+        return records;
+    }
+
+    private void apply(DataInputStream in) throws IOException {
+        final byte type = in.readByte();
+        switch (type) {
+            case TYPE_PAGE: {
+                final long recordedAt = in.readLong();
+                final String url = readString(in);
+                applyPage(url, new Record<>(GalleryPageCodec.read(in), recordedAt));
+                break;
+            }
+            case TYPE_ORIGINAL_URL: {
+                final long recordedAt = in.readLong();
+                final String imagePageUrl = readString(in);
+                applyOriginalUrl(imagePageUrl, new Record<>(readString(in), recordedAt));
+                break;
+            }
+            case TYPE_DOWNLOAD:
+                final String key = readString(in);
+                downloads.put(key, in.readLong());
+                break;
+            default:
+                throw new IOException("未知的日志记录类型: " + type);
+        }
+    }
+
+    private void applyPage(String url, Record<GalleryPage> record) {
+        pages.put(url, record);
+        // 画廊页的 page 从1开始
+        galleryPages.computeIfAbsent(record.value.getId(), k -> Collections.synchronizedMap(new TreeMap<>()))
+                .put(record.value.getPage() - 1, record);
+    }
+
+    private void applyOriginalUrl(String imagePageUrl, Record<String> record) {
+        originalUrls.put(imagePageUrl, record);
+        final Matcher matcher = IMAGE_PAGE_PATTERN.matcher(imagePageUrl);
+        if (matcher.find()) {
+            galleryOriginalUrls.computeIfAbsent(Long.parseLong(matcher.group(1)), k -> Collections.synchronizedMap(new TreeMap<>()))
+                    .put(Integer.parseInt(matcher.group(2)), record);
+        }
+    }
+
+    private static <T> T valid(Record<T> record, long ttl) {
+        return record != null && !record.isExpired(ttl) ? record.value : null;
+    }
+
+    private static <T> Map<Integer, T> valid(Map<Integer, Record<T>> records, long ttl) {
+        if (records == null) {
+            return Collections.emptyMap();
+        }
+        final Map<Integer, T> map = new TreeMap<>();
+        synchronized (records) {
+            records.forEach((k, record) -> {
+                if (!record.isExpired(ttl)) {
+                    map.put(k, record.value);
+                }
+            });
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        out.writeUTF(s != null ? s : "");
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readUTF();
+    }
+
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    /**
+     * 带记录时间的值
+     */
+    private static class Record<T> {
+        final T value;
+        final long recordedAt;
+
+        Record(T value, long recordedAt) {
+            this.value = value;
+            this.recordedAt = recordedAt;
+        }
+
+        boolean isExpired(long ttl) {
+            return ttl > 0 && System.currentTimeMillis() - recordedAt > ttl;
+        }
+    }
+}
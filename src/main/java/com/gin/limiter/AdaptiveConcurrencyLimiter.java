@@ -0,0 +1,183 @@
+package com.gin.limiter;
+
+import com.gin.metrics.EhMetrics;
+import com.gin.utils.FutureUtils;
+import lombok.Getter;
+import lombok.Setter;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 自适应并发限制(AIMD): 按域名限制同时进行的请求数
+ * <p>请求正常且延迟不超过最低延迟的 {@link #latencyTolerance} 倍时, 限制每个窗口加1;
+ * 超时、429或5xx时乘以 {@link #backoffRatio}; 延迟变高时小幅下降.
+ * 超过限制的请求在队列中等待, 有请求结束时再交给 OkHttp 的 Dispatcher. 交互请求优先于批量请求, 见 {@link Priority}.
+ * 配置了 {@link RateLimiter} 时, 请求被放行后才取令牌</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 20:05
+ */
+@Getter
+@Setter
+public class AdaptiveConcurrencyLimiter {
+    /**
+     * 初始限制
+     */
+    int initialLimit = 4;
+    /**
+     * 最小限制
+     */
+    int minLimit = 1;
+    /**
+     * 最大限制, 不应超过 Dispatcher 的 maxRequestsPerHost
+     */
+    int maxLimit = 32;
+    /**
+     * 请求被限流或超时时, 限制乘以该比例
+     */
+    double backoffRatio = 0.5;
+    /**
+     * 延迟超过最低延迟的多少倍时视为拥塞
+     */
+    double latencyTolerance = 2;
+    /**
+     * 延迟拥塞时, 限制乘以该比例
+     */
+    double latencyBackoffRatio = 0.9;
+    /**
+     * 为交互请求保留的名额, 批量请求最多占用 限制-保留 个(至少1个)
+     */
+    int interactiveReserve = 1;
+    /**
+     * 两类请求都在排队时, 每连续放行多少个交互请求后放行一个批量请求
+     */
+    int interactiveBurst = 4;
+
+    private final Map<String, HostLimit> hosts = new ConcurrentHashMap<>();
+    private final EhMetrics metrics;
+    /**
+     * 限速, 请求被放行后再取令牌, 为 null 时不限速
+     */
+    private final RateLimiter rateLimiter;
+
+    public AdaptiveConcurrencyLimiter(EhMetrics metrics) {
+        this(metrics, null);
+    }
+
+    /**
+     * @param metrics     指标
+     * @param rateLimiter 限速, 请求按优先级被放行后再取令牌, 令牌的顺序与放行顺序一致
+     */
+    public AdaptiveConcurrencyLimiter(EhMetrics metrics, RateLimiter rateLimiter) {
+        this.metrics = metrics;
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * 在限制内发起交互请求, 超出限制时排队
+     * @param call     请求
+     * @param callback 回调
+     */
+    public void enqueue(Call call, Callback callback) {
+        enqueue(call, callback, Priority.INTERACTIVE);
+    }
+
+    /**
+     * 在限制内发起请求, 超出限制时按优先级排队
+     * @param call     请求
+     * @param callback 回调
+     * @param priority 优先级
+     */
+    public void enqueue(Call call, Callback callback, Priority priority) {
+        enqueue(call, callback, () -> priority);
+    }
+
+    /**
+     * 在限制内发起请求, 超出限制时按优先级排队. 优先级在进入队列时读取, 之后提高优先级需调用 {@link #promote(Call)}
+     * @param call     请求
+     * @param callback 回调
+     * @param priority 优先级
+     */
+    public void enqueue(Call call, Callback callback, Supplier<Priority> priority) {
+        final HostLimit limit = getHostLimit(call.request().url().host());
+        limit.submit(call, priority, p -> {
+            // 放行后再取令牌, 等待令牌期间占用名额
+            final long delay = rateLimiter != null ? rateLimiter.reserve(call.request()) : 0;
+            if (delay > 0) {
+                FutureUtils.delay(delay).thenRun(() -> dispatch(limit, call, callback, p));
+            } else {
+                dispatch(limit, call, callback, p);
+            }
+        });
+    }
+
+    /**
+     * 交给 OkHttp 的 Dispatcher, 结束时释放名额
+     */
+    private static void dispatch(HostLimit limit, Call call, Callback callback, Priority priority) {
+        final long start = System.nanoTime();
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                final long rtt = System.nanoTime() - start;
+                try {
+                    callback.onFailure(call, e);
+                } finally {
+                    limit.release(start, rtt, e instanceof InterruptedIOException && !call.isCanceled(), priority);
+                }
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) throws IOException {
+                // 延迟按收到响应头计算, 但读取和处理响应体期间仍占用名额
+                final long rtt = System.nanoTime() - start;
+                final int code = response.code();
+                try {
+                    callback.onResponse(call, response);
+                } finally {
+                    limit.release(start, rtt, code == 429 || code >= 500, priority);
+                }
+            }
+        });
+    }
+
+    /**
+     * 将排队中的批量请求提升为交互请求, 不在队列中时忽略
+     * @param call 请求
+     */
+    public void promote(Call call) {
+        final HostLimit limit = hosts.get(call.request().url().host());
+        if (limit != null) {
+            limit.promote(call);
+        }
+    }
+
+    /**
+     * 指定域名的当前限制
+     * @param host 域名
+     * @return 限制
+     */
+    public int getLimit(String host) {
+        final HostLimit limit = hosts.get(host);
+        return limit != null ? limit.getLimit() : initialLimit;
+    }
+
+    private HostLimit getHostLimit(String host) {
+        return hosts.computeIfAbsent(host, h -> {
+            final HostLimit limit = new HostLimit(this);
+            metrics.gauge("limit." + h, limit::getLimit);
+            metrics.gauge("inflight." + h, limit::getInFlight);
+            metrics.gauge("queued." + h, limit::getQueued);
+            metrics.gauge("queued.bulk." + h, limit::getQueuedBulk);
+            return limit;
+        });
+    }
+}
@@ -0,0 +1,202 @@
+package com.gin.limiter;
+
+import okhttp3.Call;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 单个域名的并发限制状态
+ * <p>交互请求优先放行; 批量请求最多占用 限制-{@link AdaptiveConcurrencyLimiter#getInteractiveReserve()} 个名额,
+ * 两类都在排队时, 连续放行 {@link AdaptiveConcurrencyLimiter#getInteractiveBurst()} 个交互请求后放行一个批量请求, 避免饿死</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 20:10
+ */
+class HostLimit {
+    private final AdaptiveConcurrencyLimiter config;
+    private final Deque<Entry> interactive = new ArrayDeque<>();
+    private final Deque<Entry> bulk = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private int bulkInFlight;
+    /**
+     * 批量请求排队时连续放行的交互请求数
+     */
+    private int interactiveStreak;
+    private long minRtt = Long.MAX_VALUE;
+    /**
+     * 上次下调限制的时间, 在此之前开始的请求不再触发下调, 避免同一窗口内连续减半
+     */
+    private long lastDecrease;
+
+    HostLimit(AdaptiveConcurrencyLimiter config) {
+        this.config = config;
+        this.limit = config.getInitialLimit();
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /**
+     * 提交请求, 超出限制时按优先级排队
+     * @param call     请求, 用于 {@link #promote(Call)}
+     * @param priority 优先级, 在锁内读取, 与 {@link #promote(Call)} 不会错过
+     * @param task     放行时执行, 参数为放行时的优先级
+     */
+    void submit(Call call, Supplier<Priority> priority, Task task) {
+        final Entry entry = new Entry(call, task);
+        synchronized (this) {
+            entry.priority = priority.get();
+            final boolean isBulk = entry.priority == Priority.BULK;
+            final Deque<Entry> queue = isBulk ? bulk : interactive;
+            // 同类已有排队时不插队
+            if (!queue.isEmpty() || inFlight >= (int) limit || (isBulk && bulkInFlight >= bulkLimit())) {
+                queue.add(entry);
+                return;
+            }
+            start(entry);
+        }
+        entry.task.run(entry.priority);
+    }
+
+    /**
+     * 将排队中的批量请求提升为交互请求
+     * @param call 请求
+     */
+    void promote(Call call) {
+        synchronized (this) {
+            final Iterator<Entry> iterator = bulk.iterator();
+            while (iterator.hasNext()) {
+                final Entry entry = iterator.next();
+                if (entry.call == call) {
+                    iterator.remove();
+                    entry.priority = Priority.INTERACTIVE;
+                    interactive.add(entry);
+                    break;
+                }
+            }
+        }
+        drain();
+    }
+
+    /**
+     * 请求结束, 调整限制并放行排队的请求
+     * @param start   请求开始时间
+     * @param rtt     耗时(纳秒)
+     * @param dropped 是否被限流或超时
+     * @param priority 放行时的优先级
+     */
+    void release(long start, long rtt, boolean dropped, Priority priority) {
+        synchronized (this) {
+            inFlight--;
+            if (priority == Priority.BULK) {
+                bulkInFlight--;
+            }
+            if (dropped) {
+                decrease(start, config.getBackoffRatio());
+            } else {
+                // 最低延迟缓慢上浮, 网络整体变慢后不会一直判定为拥塞
+                minRtt = rtt < minRtt ? rtt : minRtt + (rtt - minRtt) / 64;
+                if (rtt > minRtt * config.getLatencyTolerance()) {
+                    decrease(start, config.getLatencyBackoffRatio());
+                } else {
+                    limit = Math.min(config.getMaxLimit(), limit + 1 / limit);
+                }
+            }
+        }
+        drain();
+    }
+
+    /**
+     * 在限制内放行排队的请求
+     */
+    private void drain() {
+        final List<Entry> ready = new ArrayList<>();
+        synchronized (this) {
+            Entry entry;
+            while ((entry = next()) != null) {
+                start(entry);
+                ready.add(entry);
+            }
+        }
+        ready.forEach(entry -> entry.task.run(entry.priority));
+    }
+
+    /**
+     * 选择下一个放行的请求: 交互请求优先, 连续放行达到上限后让给批量请求
+     */
+    private Entry next() {
+        if (inFlight >= (int) limit) {
+            return null;
+        }
+        final boolean bulkReady = !bulk.isEmpty() && bulkInFlight < bulkLimit();
+        if (interactive.isEmpty()) {
+            interactiveStreak = 0;
+            return bulkReady ? bulk.poll() : null;
+        }
+        if (bulkReady && interactiveStreak >= config.getInteractiveBurst()) {
+            interactiveStreak = 0;
+            return bulk.poll();
+        }
+        if (!bulk.isEmpty()) {
+            interactiveStreak++;
+        }
+        return interactive.poll();
+    }
+
+    private void start(Entry entry) {
+        inFlight++;
+        if (entry.priority == Priority.BULK) {
+            bulkInFlight++;
+        }
+    }
+
+    /**
+     * 批量请求可占用的名额, 至少为1
+     */
+    private int bulkLimit() {
+        return Math.max(1, (int) limit - config.getInteractiveReserve());
+    }
+
+    private void decrease(long start, double ratio) {
+        if (start - lastDecrease < 0) {
+            return;
+        }
+        limit = Math.max(config.getMinLimit(), limit * ratio);
+        lastDecrease = System.nanoTime();
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    synchronized int getQueued() {
+        return interactive.size() + bulk.size();
+    }
+
+    synchronized int getQueuedBulk() {
+        return bulk.size();
+    }
+
+    interface Task {
+        void run(Priority priority);
+    }
+
+    private static class Entry {
+        final Call call;
+        final Task task;
+        Priority priority;
+
+        Entry(Call call, Task task) {
+            this.call = call;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.gin.limiter;
+
+/**
+ * 请求优先级
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 23:58
+ */
+public enum Priority {
+    /**
+     * 交互请求(单个查询), 优先放行
+     */
+    INTERACTIVE,
+    /**
+     * 批量请求(抓取), 使用剩余的名额
+     */
+    BULK,
+}
@@ -0,0 +1,88 @@
+package com.gin.limiter;
+
+import com.gin.identity.Identity;
+import com.gin.utils.FutureUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Setter;
+import okhttp3.Request;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 域名 + 身份(cookie) 划分的令牌桶限速
+ * <p>未配置的域名使用默认速率, 默认速率为0时不限速</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 20:45
+ */
+public class RateLimiter {
+    /**
+     * 默认每秒请求数, 0表示不限速
+     */
+    @Getter
+    @Setter
+    private double defaultRate = 0;
+    /**
+     * 默认桶容量
+     */
+    @Getter
+    @Setter
+    private int defaultBurst = 5;
+    private final Map<String, Rate> hostRates = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * 配置指定域名的速率, 该域名下每个身份各自计算
+     * @param host  域名
+     * @param rate  每秒请求数, 0表示不限速
+     * @param burst 桶容量
+     */
+    public void setRate(String host, double rate, int burst) {
+        hostRates.put(host, new Rate(rate, burst));
+        buckets.keySet().removeIf(key -> key.startsWith(host + "#"));
+    }
+
+    /**
+     * 为请求预约一个令牌
+     * @param request 请求
+     * @return 可以发出请求时完成的future
+     */
+    public CompletableFuture<Void> acquire(Request request) {
+        return FutureUtils.delay(reserve(request));
+    }
+
+    /**
+     * 为请求预约一个令牌
+     * @param request 请求
+     * @return 需要等待的毫秒数
+     */
+    public long reserve(Request request) {
+        final String host = request.url().host();
+        final Rate config = hostRates.get(host);
+        final double rate = config != null ? config.rate : defaultRate;
+        if (rate <= 0) {
+            return 0;
+        }
+        final int burst = config != null ? config.burst : defaultBurst;
+        final String key = host + "#" + identity(request);
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(rate, burst)).reserve();
+    }
+
+    /**
+     * 请求的身份, 取cookie的哈希, 不保存cookie原文. cookie 优先取请求分配的 {@link Identity}
+     */
+    private static String identity(Request request) {
+        final Identity identity = request.tag(Identity.class);
+        final String cookie = identity != null ? identity.getCookie() : request.header("cookie");
+        return cookie != null ? Integer.toHexString(cookie.hashCode()) : "";
+    }
+
+    @AllArgsConstructor
+    private static class Rate {
+        final double rate;
+        final int burst;
+    }
+}
@@ -0,0 +1,49 @@
+package com.gin.limiter;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶: 以固定速率补充令牌, 最多积攒 burst 个
+ * <p>采用预约方式, 令牌不足时直接记账并返回需要等待的时间, 由调用方异步等待, 不阻塞线程</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 20:40
+ */
+public class TokenBucket {
+    /**
+     * 每秒补充的令牌数
+     */
+    @Getter
+    private final double rate;
+    /**
+     * 桶容量
+     */
+    @Getter
+    private final int burst;
+    private double tokens;
+    private long lastRefill;
+
+    public TokenBucket(double rate, int burst) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate 必须大于0, burst 至少为1");
+        }
+        this.rate = rate;
+        this.burst = burst;
+        this.tokens = burst;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * 预约一个令牌
+     * @return 需要等待的毫秒数, 0表示可以立即执行
+     */
+    public synchronized long reserve() {
+        final long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefill) * rate / TimeUnit.SECONDS.toNanos(1));
+        lastRefill = now;
+        tokens -= 1;
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens * 1000 / rate);
+    }
+}
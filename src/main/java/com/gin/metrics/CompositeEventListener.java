@@ -0,0 +1,202 @@
+package com.gin.metrics;
+
+import okhttp3.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * 将事件依次转发给两个 EventListener, 用于在调用方原有的监听之外记录指标
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 11:40
+ */
+class CompositeEventListener extends EventListener {
+    private final EventListener first;
+    private final EventListener second;
+
+    CompositeEventListener(EventListener first, EventListener second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public void callStart(@NotNull Call call) {
+        first.callStart(call);
+        second.callStart(call);
+    }
+
+    @Override
+    public void proxySelectStart(@NotNull Call call, @NotNull HttpUrl url) {
+        first.proxySelectStart(call, url);
+        second.proxySelectStart(call, url);
+    }
+
+    @Override
+    public void proxySelectEnd(@NotNull Call call, @NotNull HttpUrl url, @NotNull List<Proxy> proxies) {
+        first.proxySelectEnd(call, url, proxies);
+        second.proxySelectEnd(call, url, proxies);
+    }
+
+    @Override
+    public void dnsStart(@NotNull Call call, @NotNull String domainName) {
+        first.dnsStart(call, domainName);
+        second.dnsStart(call, domainName);
+    }
+
+    @Override
+    public void dnsEnd(@NotNull Call call, @NotNull String domainName, @NotNull List<InetAddress> inetAddressList) {
+        first.dnsEnd(call, domainName, inetAddressList);
+        second.dnsEnd(call, domainName, inetAddressList);
+    }
+
+    @Override
+    public void connectStart(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy) {
+        first.connectStart(call, inetSocketAddress, proxy);
+        second.connectStart(call, inetSocketAddress, proxy);
+    }
+
+    @Override
+    public void secureConnectStart(@NotNull Call call) {
+        first.secureConnectStart(call);
+        second.secureConnectStart(call);
+    }
+
+    @Override
+    public void secureConnectEnd(@NotNull Call call, @Nullable Handshake handshake) {
+        first.secureConnectEnd(call, handshake);
+        second.secureConnectEnd(call, handshake);
+    }
+
+    @Override
+    public void connectEnd(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy, @Nullable Protocol protocol) {
+        first.connectEnd(call, inetSocketAddress, proxy, protocol);
+        second.connectEnd(call, inetSocketAddress, proxy, protocol);
+    }
+
+    @Override
+    public void connectFailed(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy,
+                              @Nullable Protocol protocol, @NotNull IOException ioe) {
+        first.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+        second.connectFailed(call, inetSocketAddress, proxy, protocol, ioe);
+    }
+
+    @Override
+    public void connectionAcquired(@NotNull Call call, @NotNull Connection connection) {
+        first.connectionAcquired(call, connection);
+        second.connectionAcquired(call, connection);
+    }
+
+    @Override
+    public void connectionReleased(@NotNull Call call, @NotNull Connection connection) {
+        first.connectionReleased(call, connection);
+        second.connectionReleased(call, connection);
+    }
+
+    @Override
+    public void requestHeadersStart(@NotNull Call call) {
+        first.requestHeadersStart(call);
+        second.requestHeadersStart(call);
+    }
+
+    @Override
+    public void requestHeadersEnd(@NotNull Call call, @NotNull Request request) {
+        first.requestHeadersEnd(call, request);
+        second.requestHeadersEnd(call, request);
+    }
+
+    @Override
+    public void requestBodyStart(@NotNull Call call) {
+        first.requestBodyStart(call);
+        second.requestBodyStart(call);
+    }
+
+    @Override
+    public void requestBodyEnd(@NotNull Call call, long byteCount) {
+        first.requestBodyEnd(call, byteCount);
+        second.requestBodyEnd(call, byteCount);
+    }
+
+    @Override
+    public void requestFailed(@NotNull Call call, @NotNull IOException ioe) {
+        first.requestFailed(call, ioe);
+        second.requestFailed(call, ioe);
+    }
+
+    @Override
+    public void responseHeadersStart(@NotNull Call call) {
+        first.responseHeadersStart(call);
+        second.responseHeadersStart(call);
+    }
+
+    @Override
+    public void responseHeadersEnd(@NotNull Call call, @NotNull Response response) {
+        first.responseHeadersEnd(call, response);
+        second.responseHeadersEnd(call, response);
+    }
+
+    @Override
+    public void responseBodyStart(@NotNull Call call) {
+        first.responseBodyStart(call);
+        second.responseBodyStart(call);
+    }
+
+    @Override
+    public void responseBodyEnd(@NotNull Call call, long byteCount) {
+        first.responseBodyEnd(call, byteCount);
+        second.responseBodyEnd(call, byteCount);
+    }
+
+    @Override
+    public void responseFailed(@NotNull Call call, @NotNull IOException ioe) {
+        first.responseFailed(call, ioe);
+        second.responseFailed(call, ioe);
+    }
+
+    @Override
+    public void callEnd(@NotNull Call call) {
+        first.callEnd(call);
+        second.callEnd(call);
+    }
+
+    @Override
+    public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+        first.callFailed(call, ioe);
+        second.callFailed(call, ioe);
+    }
+
+    @Override
+    public void canceled(@NotNull Call call) {
+        first.canceled(call);
+        second.canceled(call);
+    }
+
+    @Override
+    public void satisfactionFailure(@NotNull Call call, @NotNull Response response) {
+        first.satisfactionFailure(call, response);
+        second.satisfactionFailure(call, response);
+    }
+
+    @Override
+    public void cacheHit(@NotNull Call call, @NotNull Response response) {
+        first.cacheHit(call, response);
+        second.cacheHit(call, response);
+    }
+
+    @Override
+    public void cacheMiss(@NotNull Call call) {
+        first.cacheMiss(call);
+        second.cacheMiss(call);
+    }
+
+    @Override
+    public void cacheConditionalHit(@NotNull Call call, @NotNull Response cachedResponse) {
+        first.cacheConditionalHit(call, cachedResponse);
+        second.cacheConditionalHit(call, cachedResponse);
+    }
+}
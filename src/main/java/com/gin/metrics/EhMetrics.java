@@ -0,0 +1,139 @@
+package com.gin.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 请求指标: 计数器和直方图, 以名称区分. 耗时单位为微秒
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 19:20
+ */
+public class EhMetrics {
+    /**
+     * 请求数
+     */
+    public static final String REQUESTS = "requests";
+    /**
+     * 失败的请求数(网络错误)
+     */
+    public static final String FAILURES = "failures";
+    /**
+     * 超时的请求数
+     */
+    public static final String TIMEOUTS = "timeouts";
+    /**
+     * ResponseHandler 处理失败的次数
+     */
+    public static final String HANDLER_FAILURES = "failures.handler";
+    /**
+     * 重试次数
+     */
+    public static final String RETRIES = "retries";
+    /**
+     * 509次数
+     */
+    public static final String ERROR_509 = "error509";
+    /**
+     * 写入画廊页缓存失败的次数
+     */
+    public static final String CACHE_ERRORS = "cache.errors";
+    /**
+     * 发送字节数
+     */
+    public static final String BYTES_SENT = "bytes.sent";
+    /**
+     * 接收字节数
+     */
+    public static final String BYTES_RECEIVED = "bytes.received";
+    /**
+     * DNS耗时
+     */
+    public static final String DNS = "time.dns";
+    /**
+     * 建立连接耗时(含TLS)
+     */
+    public static final String CONNECT = "time.connect";
+    /**
+     * TLS握手耗时
+     */
+    public static final String TLS = "time.tls";
+    /**
+     * 请求开始到收到响应头的耗时
+     */
+    public static final String TTFB = "time.ttfb";
+    /**
+     * 读取响应体耗时
+     */
+    public static final String BODY = "time.body";
+    /**
+     * 请求总耗时
+     */
+    public static final String CALL = "time.call";
+    /**
+     * ResponseHandler 解析耗时
+     */
+    public static final String PARSE = "time.parse";
+
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public void increment(String name) {
+        add(name, 1);
+    }
+
+    public void add(String name, long n) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(n);
+    }
+
+    /**
+     * 注册一个瞬时值, 取快照时读取
+     * @param name     名称
+     * @param supplier 读取方法
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * 记录一个值
+     * @param name  名称
+     * @param value 值
+     */
+    public void record(String name, long value) {
+        histograms.computeIfAbsent(name, k -> new Histogram()).record(value);
+    }
+
+    /**
+     * 记录耗时, 转换为微秒
+     * @param name  名称
+     * @param nanos 纳秒
+     */
+    public void recordNanos(String name, long nanos) {
+        record(name, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    public long getCount(String name) {
+        final LongAdder adder = counters.get(name);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    /**
+     * 当前所有指标的快照
+     * @return 快照
+     */
+    public MetricsSnapshot snapshot() {
+        final Map<String, Long> counters = new TreeMap<>();
+        this.counters.forEach((k, v) -> counters.put(k, v.sum()));
+        final Map<String, Long> gauges = new TreeMap<>();
+        this.gauges.forEach((k, v) -> gauges.put(k, v.getAsLong()));
+        final Map<String, HistogramSnapshot> histograms = new TreeMap<>();
+        this.histograms.forEach((k, v) -> histograms.put(k, v.snapshot()));
+        return new MetricsSnapshot(System.currentTimeMillis(), counters, gauges, histograms);
+    }
+}
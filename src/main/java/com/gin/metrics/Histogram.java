@@ -0,0 +1,65 @@
+package com.gin.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 低开销直方图: 按2的幂分桶, 记录时无锁
+ * <p>第 i 个桶记录 [2^(i-1), 2^i) 范围内的值, 分位数取桶的上界, 误差不超过一倍</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 19:10
+ */
+public class Histogram {
+    private static final int BUCKETS = 64;
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Long::max, 0);
+
+    public Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一个值, 负数按0记录
+     * @param value 值
+     */
+    public void record(long value) {
+        value = Math.max(0, value);
+        buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+        count.increment();
+        sum.add(value);
+        max.accumulate(value);
+    }
+
+    public HistogramSnapshot snapshot() {
+        final long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        final long max = this.max.get();
+        return new HistogramSnapshot(total, sum.sum(), max,
+                percentile(counts, total, max, 0.5), percentile(counts, total, max, 0.9), percentile(counts, total, max, 0.99));
+    }
+
+    private static long percentile(long[] counts, long total, long max, double p) {
+        if (total == 0) {
+            return 0;
+        }
+        final long rank = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                final long upper = i == 0 ? 0 : (i >= 63 ? Long.MAX_VALUE : (1L << i) - 1);
+                return Math.min(upper, max);
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,30 @@
+package com.gin.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 直方图快照
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 19:15
+ */
+@Getter
+@AllArgsConstructor
+public class HistogramSnapshot {
+    final long count;
+    final long sum;
+    final long max;
+    final long p50;
+    final long p90;
+    final long p99;
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count=%d, mean=%.1f, p50<=%d, p90<=%d, p99<=%d, max=%d", count, getMean(), p50, p90, p99, max);
+    }
+}
@@ -0,0 +1,121 @@
+package com.gin.metrics;
+
+import okhttp3.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+
+/**
+ * 记录单个请求各阶段耗时和字节数的 EventListener, 每个 Call 一个实例
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 19:35
+ */
+public class MetricsEventListener extends EventListener {
+    private final EhMetrics metrics;
+    private long callStart;
+    private long dnsStart;
+    private long connectStart;
+    private long secureConnectStart;
+    private long bodyStart;
+
+    public MetricsEventListener(EhMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * 创建工厂
+     * @param metrics 指标
+     * @return 工厂
+     */
+    public static EventListener.Factory factory(EhMetrics metrics) {
+        return call -> new MetricsEventListener(metrics);
+    }
+
+    /**
+     * 创建工厂, 事件同时交给原有的监听
+     * @param metrics  指标
+     * @param delegate 原有的监听工厂
+     * @return 工厂
+     */
+    public static EventListener.Factory factory(EhMetrics metrics, EventListener.Factory delegate) {
+        return call -> new CompositeEventListener(delegate.create(call), new MetricsEventListener(metrics));
+    }
+
+    @Override
+    public void callStart(@NotNull Call call) {
+        callStart = System.nanoTime();
+        metrics.increment(EhMetrics.REQUESTS);
+    }
+
+    @Override
+    public void dnsStart(@NotNull Call call, @NotNull String domainName) {
+        dnsStart = System.nanoTime();
+    }
+
+    @Override
+    public void dnsEnd(@NotNull Call call, @NotNull String domainName, @NotNull List<InetAddress> inetAddressList) {
+        metrics.recordNanos(EhMetrics.DNS, System.nanoTime() - dnsStart);
+    }
+
+    @Override
+    public void connectStart(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy) {
+        connectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectStart(@NotNull Call call) {
+        secureConnectStart = System.nanoTime();
+    }
+
+    @Override
+    public void secureConnectEnd(@NotNull Call call, @Nullable Handshake handshake) {
+        metrics.recordNanos(EhMetrics.TLS, System.nanoTime() - secureConnectStart);
+    }
+
+    @Override
+    public void connectEnd(@NotNull Call call, @NotNull InetSocketAddress inetSocketAddress, @NotNull Proxy proxy, @Nullable Protocol protocol) {
+        metrics.recordNanos(EhMetrics.CONNECT, System.nanoTime() - connectStart);
+    }
+
+    @Override
+    public void requestBodyEnd(@NotNull Call call, long byteCount) {
+        metrics.add(EhMetrics.BYTES_SENT, byteCount);
+    }
+
+    @Override
+    public void responseHeadersStart(@NotNull Call call) {
+        metrics.recordNanos(EhMetrics.TTFB, System.nanoTime() - callStart);
+    }
+
+    @Override
+    public void responseBodyStart(@NotNull Call call) {
+        bodyStart = System.nanoTime();
+    }
+
+    @Override
+    public void responseBodyEnd(@NotNull Call call, long byteCount) {
+        metrics.recordNanos(EhMetrics.BODY, System.nanoTime() - bodyStart);
+        metrics.add(EhMetrics.BYTES_RECEIVED, byteCount);
+    }
+
+    @Override
+    public void callEnd(@NotNull Call call) {
+        metrics.recordNanos(EhMetrics.CALL, System.nanoTime() - callStart);
+    }
+
+    @Override
+    public void callFailed(@NotNull Call call, @NotNull IOException ioe) {
+        metrics.recordNanos(EhMetrics.CALL, System.nanoTime() - callStart);
+        metrics.increment(EhMetrics.FAILURES);
+        if (ioe instanceof InterruptedIOException) {
+            metrics.increment(EhMetrics.TIMEOUTS);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.gin.metrics;
+
+/**
+ * 指标导出
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 19:30
+ */
+public interface MetricsExporter {
+    /**
+     * 导出一个快照
+     * @param snapshot 快照
+     */
+    void export(MetricsSnapshot snapshot);
+}
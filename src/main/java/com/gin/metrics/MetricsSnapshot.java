@@ -0,0 +1,36 @@
+package com.gin.metrics;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Map;
+
+/**
+ * 指标快照
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 19:25
+ */
+@Getter
+@AllArgsConstructor
+public class MetricsSnapshot {
+    /**
+     * 快照时间
+     */
+    final long timestamp;
+    final Map<String, Long> counters;
+    final Map<String, Long> gauges;
+    /**
+     * 耗时单位为微秒
+     */
+    final Map<String, HistogramSnapshot> histograms;
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        counters.forEach((k, v) -> sb.append(k).append(" = ").append(v).append('\n'));
+        gauges.forEach((k, v) -> sb.append(k).append(" = ").append(v).append('\n'));
+        histograms.forEach((k, v) -> sb.append(k).append(" : ").append(v).append('\n'));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,25 @@
+package com.gin.metrics;
+
+import lombok.RequiredArgsConstructor;
+
+import java.io.PrintStream;
+
+/**
+ * 将指标快照打印到输出流
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 19:40
+ */
+@RequiredArgsConstructor
+public class PrintStreamMetricsExporter implements MetricsExporter {
+    private final PrintStream out;
+
+    public PrintStreamMetricsExporter() {
+        this(System.out);
+    }
+
+    @Override
+    public void export(MetricsSnapshot snapshot) {
+        out.print(snapshot);
+    }
+}
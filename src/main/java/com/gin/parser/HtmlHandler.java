@@ -0,0 +1,45 @@
+package com.gin.parser;
+
+/**
+ * 流式解析事件处理
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 13:12
+ */
+interface HtmlHandler {
+    /**
+     * 开始标签
+     * @param tag 标签
+     */
+    void startTag(HtmlTag tag);
+
+    /**
+     * 结束标签(包括没有结束标签的空元素和被隐式关闭的元素)
+     * @param tag 标签
+     */
+    void endTag(HtmlTag tag);
+
+    /**
+     * 文本, 已解码实体
+     * @param text   文本
+     * @param parent 文本所在的元素
+     */
+    void text(String text, HtmlTag parent);
+
+    /**
+     * 是否需要指定元素中的文本, 不需要时不创建字符串
+     * @param parent 文本所在的元素
+     * @return 是否需要
+     */
+    default boolean wantsText(HtmlTag parent) {
+        return true;
+    }
+
+    /**
+     * 已取得所有需要的数据, 可以停止读取
+     * @return 是否停止
+     */
+    default boolean isDone() {
+        return false;
+    }
+}
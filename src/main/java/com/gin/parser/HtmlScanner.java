@@ -0,0 +1,252 @@
+package com.gin.parser;
+
+import org.jsoup.parser.Parser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 轻量的流式 HTML 扫描器, 一次读取, 不构建 DOM
+ * <p>只处理标签、属性和文本, 忽略注释、doctype 以及 script/style 的内容. 结束标签会关闭到最近的同名元素, 找不到同名元素时忽略.
+ * 自闭合标记的处理与 jsoup 1.15 相同: {@code <div/>}、{@code <span/>}、{@code <script/>} 等都立即关闭, 之后的文本属于父元素</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 13:20
+ */
+class HtmlScanner {
+    /**
+     * 没有结束标签的元素
+     */
+    private static final Set<String> VOID_ELEMENTS = new HashSet<>(Arrays.asList(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "param", "source", "track", "wbr"));
+    /**
+     * 内容不需要解析的元素
+     */
+    private static final Set<String> RAW_TEXT_ELEMENTS = new HashSet<>(Arrays.asList("script", "style"));
+
+    private final Reader reader;
+    private final HtmlHandler handler;
+    private final char[] buffer = new char[8192];
+    private final Deque<HtmlTag> stack = new ArrayDeque<>();
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+
+    HtmlScanner(Reader reader, HtmlHandler handler) {
+        this.reader = reader;
+        this.handler = handler;
+    }
+
+    /**
+     * 扫描直到文档结束或处理方法不再需要数据
+     */
+    void scan() throws IOException {
+        int c;
+        while (!handler.isDone() && (c = read()) != -1) {
+            if (c != '<') {
+                text.append((char) c);
+                continue;
+            }
+            final int next = peek();
+            if (next == '/' || next == '!' || next == '?' || isLetter(next)) {
+                flushText();
+                if (next == '/') {
+                    read();
+                    readEndTag();
+                } else if (next == '!' || next == '?') {
+                    skipDeclaration();
+                } else {
+                    readStartTag();
+                }
+            } else {
+                text.append('<');
+            }
+        }
+        flushText();
+    }
+
+    private void readStartTag() throws IOException {
+        final String name = readName();
+        final HtmlTag tag = new HtmlTag(name, stack.peek());
+        boolean selfClosing = false;
+        int c;
+        while ((c = skipWhitespace()) != -1 && c != '>') {
+            if (c == '/') {
+                read();
+                selfClosing = true;
+                continue;
+            }
+            selfClosing = false;
+            final String key = readName();
+            if (key.isEmpty()) {
+                // 无法识别的字符, 跳过
+                read();
+                continue;
+            }
+            String value = "";
+            if (skipWhitespace() == '=') {
+                read();
+                value = readAttributeValue();
+            }
+            if (!tag.getAttributes().containsKey(key)) {
+                tag.getAttributes().put(key, value.indexOf('&') >= 0 ? Parser.unescapeEntities(value, true) : value);
+            }
+        }
+        // 读取 '>'
+        read();
+        handler.startTag(tag);
+        // 与 jsoup 1.15 相同: 任何元素的自闭合标记都立即关闭该元素
+        if (VOID_ELEMENTS.contains(name) || selfClosing) {
+            handler.endTag(tag);
+        } else if (RAW_TEXT_ELEMENTS.contains(name)) {
+            skipRawText(name);
+            handler.endTag(tag);
+        } else {
+            stack.push(tag);
+        }
+    }
+
+    private void readEndTag() throws IOException {
+        final String name = readName();
+        int c;
+        while ((c = read()) != -1 && c != '>') {
+            // 忽略结束标签中的其他内容
+        }
+        boolean open = false;
+        for (Iterator<HtmlTag> iterator = stack.iterator(); iterator.hasNext() && !open; ) {
+            open = iterator.next().is(name);
+        }
+        if (!open) {
+            return;
+        }
+        HtmlTag tag;
+        do {
+            tag = stack.pop();
+            handler.endTag(tag);
+        } while (!tag.is(name));
+    }
+
+    /**
+     * 跳过注释、doctype 和处理指令
+     */
+    private void skipDeclaration() throws IOException {
+        final int first = read();
+        if (first == '!' && peek() == '-') {
+            // 注释, 读到 "-->"
+            int dashes = 0;
+            int c;
+            while ((c = read()) != -1) {
+                if (c == '>' && dashes >= 2) {
+                    return;
+                }
+                dashes = c == '-' ? dashes + 1 : 0;
+            }
+            return;
+        }
+        int c;
+        while ((c = read()) != -1 && c != '>') {
+            // 忽略
+        }
+    }
+
+    /**
+     * 跳过 script/style 的内容直到对应的结束标签
+     * @param name 标签名
+     */
+    private void skipRawText(String name) throws IOException {
+        final String end = "</" + name;
+        int matched = 0;
+        int c;
+        while ((c = read()) != -1) {
+            if (Character.toLowerCase(c) == end.charAt(matched)) {
+                if (++matched == end.length()) {
+                    while ((c = read()) != -1 && c != '>') {
+                        // 忽略
+                    }
+                    return;
+                }
+            } else {
+                matched = c == '<' ? 1 : 0;
+            }
+        }
+    }
+
+    private String readName() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = peek()) != -1 && !Character.isWhitespace(c) && c != '>' && c != '/' && c != '=') {
+            sb.append((char) read());
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    private String readAttributeValue() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        int c = skipWhitespace();
+        if (c == '"' || c == '\'') {
+            final int quote = read();
+            while ((c = read()) != -1 && c != quote) {
+                sb.append((char) c);
+            }
+        } else {
+            while ((c = peek()) != -1 && !Character.isWhitespace(c) && c != '>') {
+                sb.append((char) read());
+            }
+        }
+        return sb.toString();
+    }
+
+    private void flushText() {
+        if (text.length() > 0) {
+            final HtmlTag parent = stack.peek();
+            if (handler.wantsText(parent)) {
+                final String s = text.toString();
+                handler.text(s.indexOf('&') >= 0 ? Parser.unescapeEntities(s, false) : s, parent);
+            }
+            text.setLength(0);
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != -1 && Character.isWhitespace(c)) {
+            read();
+        }
+        return c;
+    }
+
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private int read() throws IOException {
+        return fill() ? buffer[position++] : -1;
+    }
+
+    private int peek() throws IOException {
+        return fill() ? buffer[position] : -1;
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        int n;
+        do {
+            n = reader.read(buffer, 0, buffer.length);
+        } while (n == 0);
+        if (n < 0) {
+            return false;
+        }
+        position = 0;
+        limit = n;
+        return true;
+    }
+}
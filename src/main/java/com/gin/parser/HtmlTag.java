@@ -0,0 +1,76 @@
+package com.gin.parser;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 流式解析中的一个开始标签
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 13:10
+ */
+@Getter
+class HtmlTag {
+    /**
+     * 标签名, 小写
+     */
+    private final String name;
+    /**
+     * 父标签, 根元素为 null
+     */
+    private final HtmlTag parent;
+    private final Map<String, String> attributes = new HashMap<>();
+
+    HtmlTag(String name, HtmlTag parent) {
+        this.name = name;
+        this.parent = parent;
+    }
+
+    String attr(String key) {
+        return attributes.get(key);
+    }
+
+    String id() {
+        return attributes.get("id");
+    }
+
+    boolean is(String name) {
+        return this.name.equals(name);
+    }
+
+    boolean hasClass(String className) {
+        final String classes = attributes.get("class");
+        if (classes == null) {
+            return false;
+        }
+        // 逐个比较空白分隔的类名, 不使用正则
+        final int length = className.length();
+        int from = 0;
+        int index;
+        while ((index = classes.indexOf(className, from)) >= 0) {
+            final int end = index + length;
+            if ((index == 0 || Character.isWhitespace(classes.charAt(index - 1)))
+                    && (end == classes.length() || Character.isWhitespace(classes.charAt(end)))) {
+                return true;
+            }
+            from = end;
+        }
+        return false;
+    }
+
+    /**
+     * 是否为指定标签的后代(或自身)
+     * @param tag 标签
+     * @return 是否
+     */
+    boolean isWithin(HtmlTag tag) {
+        for (HtmlTag t = this; t != null; t = t.parent) {
+            if (t == tag) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,25 @@
+package com.gin.parser;
+
+import com.gin.entity.GalleryImagePage;
+import com.gin.entity.GalleryPage;
+import com.gin.entity.ResponseContext;
+
+import java.io.IOException;
+
+/**
+ * 构建 jsoup Document 后解析页面
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 13:05
+ */
+public class JsoupPageParser implements PageParser {
+    @Override
+    public GalleryPage parseGalleryPage(ResponseContext context) throws IOException {
+        return new GalleryPage(context.getDocument());
+    }
+
+    @Override
+    public GalleryImagePage parseImagePage(ResponseContext context) throws IOException {
+        return new GalleryImagePage(context.getDocument());
+    }
+}
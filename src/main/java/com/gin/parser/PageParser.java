@@ -0,0 +1,31 @@
+package com.gin.parser;
+
+import com.gin.entity.GalleryImagePage;
+import com.gin.entity.GalleryPage;
+import com.gin.entity.ResponseContext;
+
+import java.io.IOException;
+
+/**
+ * 页面解析器
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 13:00
+ */
+public interface PageParser {
+    /**
+     * 解析画廊页
+     * @param context 响应
+     * @return 画廊页
+     * @throws IOException 读取或解析失败
+     */
+    GalleryPage parseGalleryPage(ResponseContext context) throws IOException;
+
+    /**
+     * 解析图片详情页
+     * @param context 响应
+     * @return 图片详情页
+     * @throws IOException 读取或解析失败
+     */
+    GalleryImagePage parseImagePage(ResponseContext context) throws IOException;
+}
@@ -0,0 +1,254 @@
+package com.gin.parser;
+
+import com.gin.entity.GalleryImagePage;
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.entity.GalleryPage;
+import com.gin.entity.ResponseContext;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 流式解析页面, 从响应体中一次读取所需字段, 不构建 DOM
+ * <p>结果与 {@link JsoupPageParser} 一致</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 13:40
+ */
+public class StreamingPageParser implements PageParser {
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s\\u00A0]+");
+
+    @Override
+    public GalleryPage parseGalleryPage(ResponseContext context) throws IOException {
+        final GalleryPageHandler handler = new GalleryPageHandler();
+        scan(context, handler);
+        if (handler.currentPage == null) {
+            throw new IOException("解析失败, 未找到翻页组件: " + context.getUrl());
+        }
+        return new GalleryPage(handler.title, handler.titleJp, Integer.parseInt(handler.currentPage), handler.pagerTexts,
+                handler.firstUrl, handler.thumbnails);
+    }
+
+    @Override
+    public GalleryImagePage parseImagePage(ResponseContext context) throws IOException {
+        final ImagePageHandler handler = new ImagePageHandler();
+        scan(context, handler);
+        return new GalleryImagePage(handler.title, handler.src, handler.redirectUrl);
+    }
+
+    private static void scan(ResponseContext context, HtmlHandler handler) throws IOException {
+        try (Reader reader = context.getBodyReader()) {
+            if (reader == null) {
+                throw new IOException("响应体为空: " + context.getUrl());
+            }
+            new HtmlScanner(reader, handler).scan();
+        }
+    }
+
+    /**
+     * 与 jsoup 的 ownText 一致: 合并连续空白, 去掉首尾空白
+     * @param sb 文本
+     * @return 文本
+     */
+    private static String normalize(StringBuilder sb) {
+        return WHITESPACE.matcher(sb).replaceAll(" ").trim();
+    }
+
+    private static String orEmpty(String s) {
+        return s != null ? s : "";
+    }
+
+    /**
+     * 画廊页: 标题、翻页组件、缩略图
+     */
+    private static class GalleryPageHandler implements HtmlHandler {
+        String title;
+        String titleJp;
+        String currentPage;
+        String firstUrl;
+        final List<String> pagerTexts = new ArrayList<>();
+        final List<GalleryImageThumbnail> thumbnails = new ArrayList<>();
+
+        HtmlTag titleTag;
+        HtmlTag titleJpTag;
+        final StringBuilder titleText = new StringBuilder();
+        final StringBuilder titleJpText = new StringBuilder();
+        /**
+         * 第一个翻页组件
+         */
+        HtmlTag pager;
+        boolean pagerClosed;
+        HtmlTag currentPageCell;
+        HtmlTag pagerLink;
+        final StringBuilder pagerLinkText = new StringBuilder();
+        /**
+         * 当前缩略图
+         */
+        HtmlTag thumbnail;
+        String thumbnailHref;
+        String thumbnailSrc;
+        String thumbnailTitle;
+        boolean thumbnailHasImg;
+
+        @Override
+        public void startTag(HtmlTag tag) {
+            final String id = tag.id();
+            if (titleTag == null && "gn".equals(id)) {
+                titleTag = tag;
+            } else if (titleJpTag == null && "gj".equals(id)) {
+                titleJpTag = tag;
+            }
+            if (tag.is("br")) {
+                appendOwnText(" ", tag.getParent());
+            }
+            // 翻页组件
+            if (pager == null && tag.hasClass("ptt")) {
+                pager = tag;
+            }
+            if (pager != null && !pagerClosed) {
+                if (currentPageCell == null && tag.hasClass("ptds")) {
+                    currentPageCell = tag;
+                }
+                if (tag.is("a")) {
+                    pagerLink = tag;
+                    pagerLinkText.setLength(0);
+                }
+            }
+            // 缩略图
+            if (thumbnail == null && tag.hasClass("gdtl")) {
+                thumbnail = tag;
+                thumbnailHref = null;
+                thumbnailSrc = null;
+                thumbnailTitle = null;
+                thumbnailHasImg = false;
+            }
+            if (thumbnail != null) {
+                if (tag.is("a") && thumbnailHref == null) {
+                    thumbnailHref = orEmpty(tag.attr("href"));
+                }
+                if (tag.is("img") && !thumbnailHasImg) {
+                    thumbnailHasImg = true;
+                    thumbnailSrc = orEmpty(tag.attr("src"));
+                    thumbnailTitle = orEmpty(tag.attr("title"));
+                }
+            }
+        }
+
+        @Override
+        public void endTag(HtmlTag tag) {
+            if (tag == titleTag) {
+                title = normalize(titleText);
+            } else if (tag == titleJpTag) {
+                titleJp = normalize(titleJpText);
+            }
+            if (tag == pagerLink) {
+                final String text = normalize(pagerLinkText);
+                pagerTexts.add(text);
+                if (firstUrl == null && "1".equals(text)) {
+                    firstUrl = orEmpty(tag.attr("href"));
+                }
+                if (currentPage == null && currentPageCell != null && tag.isWithin(currentPageCell)) {
+                    currentPage = text;
+                }
+                pagerLink = null;
+            }
+            if (tag == pager) {
+                pagerClosed = true;
+            }
+            if (tag == thumbnail) {
+                thumbnails.add(new GalleryImageThumbnail(thumbnailHref, thumbnailSrc, thumbnailTitle));
+                thumbnail = null;
+            }
+        }
+
+        @Override
+        public boolean wantsText(HtmlTag parent) {
+            return parent != null && (parent == titleTag || parent == titleJpTag || parent == pagerLink);
+        }
+
+        @Override
+        public void text(String text, HtmlTag parent) {
+            appendOwnText(text, parent);
+        }
+
+        private void appendOwnText(String text, HtmlTag parent) {
+            if (parent == null) {
+                return;
+            }
+            if (parent == titleTag && title == null) {
+                titleText.append(text);
+            } else if (parent == titleJpTag && titleJp == null) {
+                titleJpText.append(text);
+            }
+            if (parent == pagerLink) {
+                pagerLinkText.append(text);
+            }
+        }
+    }
+
+    /**
+     * 图片详情页: 标题、预览图、原图跳转地址
+     */
+    private static class ImagePageHandler implements HtmlHandler {
+        String title;
+        String src;
+        String redirectUrl;
+
+        HtmlTag titleTag;
+        final StringBuilder titleText = new StringBuilder();
+        boolean imgFound;
+        /**
+         * 跳转链接所在的容器 #i7 已结束
+         */
+        boolean redirectClosed;
+
+        @Override
+        public void startTag(HtmlTag tag) {
+            final HtmlTag parent = tag.getParent();
+            final String parentId = parent != null ? parent.id() : null;
+            if (titleTag == null && tag.is("h1") && "i1".equals(parentId)) {
+                titleTag = tag;
+            }
+            if (tag.is("br") && parent != null && parent == titleTag) {
+                titleText.append(' ');
+            }
+            if (!imgFound && "img".equals(tag.id())) {
+                imgFound = true;
+                src = orEmpty(tag.attr("src"));
+            }
+            if (redirectUrl == null && tag.is("a") && "i7".equals(parentId)) {
+                redirectUrl = orEmpty(tag.attr("href"));
+            }
+        }
+
+        @Override
+        public void endTag(HtmlTag tag) {
+            if (tag == titleTag) {
+                title = normalize(titleText);
+            }
+            if ("i7".equals(tag.id())) {
+                redirectClosed = true;
+            }
+        }
+
+        @Override
+        public boolean wantsText(HtmlTag parent) {
+            return parent != null && parent == titleTag;
+        }
+
+        @Override
+        public void text(String text, HtmlTag parent) {
+            if (parent != null && parent == titleTag && title == null) {
+                titleText.append(text);
+            }
+        }
+
+        @Override
+        public boolean isDone() {
+            return title != null && imgFound && (redirectUrl != null || redirectClosed);
+        }
+    }
+}
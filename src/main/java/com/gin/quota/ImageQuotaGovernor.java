@@ -0,0 +1,185 @@
+package com.gin.quota;
+
+import com.gin.api.EhApi;
+import com.gin.entity.ImageLimit;
+import com.gin.utils.FutureUtils;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 图像限额控制
+ * <p>定期查询并缓存图像限额, 两次查询之间按估算的消耗累计. 预计用量超过 {@link #slowDownRatio} 时按比例延迟请求,
+ * 超过 {@link #pauseRatio} 或遇到509时暂停, 直到重新查询的限额恢复</p>
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 17:20
+ */
+public class ImageQuotaGovernor {
+    private final EhApi api;
+    /**
+     * 查询限额的间隔(毫秒)
+     */
+    @Getter
+    @Setter
+    private long refreshInterval = 60 * 1000;
+    /**
+     * 请求一次原图地址的估算消耗
+     */
+    @Getter
+    @Setter
+    private int resolveCost = 1;
+    /**
+     * 下载一张原图的估算消耗
+     */
+    @Getter
+    @Setter
+    private int downloadCost = 5;
+    /**
+     * 开始减速的用量比例
+     */
+    @Getter
+    @Setter
+    private double slowDownRatio = 0.8;
+    /**
+     * 暂停的用量比例
+     */
+    @Getter
+    @Setter
+    private double pauseRatio = 0.95;
+    /**
+     * 减速时的最长延迟(毫秒)
+     */
+    @Getter
+    @Setter
+    private long maxSlowDownDelay = 5000;
+    /**
+     * 暂停时长(毫秒), 之后重新查询限额
+     */
+    @Getter
+    @Setter
+    private long pauseMillis = 5 * 60 * 1000;
+
+    /**
+     * 最近一次查询到的限额, 未知时为 null
+     */
+    @Getter
+    private volatile ImageLimit limit;
+    /**
+     * 最近一次查询完成的时间
+     */
+    private volatile long refreshedAt;
+    /**
+     * 最近一次查询之后累计的估算消耗
+     */
+    private long charged;
+    /**
+     * 暂停到的时间
+     */
+    private volatile long pausedUntil;
+    /**
+     * 进行中的查询
+     */
+    private CompletableFuture<ImageLimit> refreshing;
+
+    public ImageQuotaGovernor(EhApi api) {
+        this.api = api;
+    }
+
+    /**
+     * 申请额度: 额度充足时立即完成; 接近上限时延迟完成; 达到上限时暂停到额度恢复
+     * @param cost 估算消耗
+     * @return future, 完成时已计入消耗
+     */
+    public CompletableFuture<Void> acquire(int cost) {
+        final long pause = pausedUntil - System.currentTimeMillis();
+        if (pause > 0) {
+            return FutureUtils.delay(pause).thenCompose(v -> acquire(cost));
+        }
+        return refreshLimit().thenCompose(limit -> {
+            if (limit == null || limit.getMax() == null || limit.getMax() <= 0) {
+                // 无法获取限额时不控制
+                return CompletableFuture.completedFuture(null);
+            }
+            final double ratio = (double) (limit.getCurrent() + getCharged() + cost) / limit.getMax();
+            if (ratio >= pauseRatio) {
+                pause();
+                return acquire(cost);
+            }
+            charge(cost);
+            if (ratio >= slowDownRatio) {
+                return FutureUtils.delay((long) (maxSlowDownDelay * (ratio - slowDownRatio) / (pauseRatio - slowDownRatio)));
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+    }
+
+    /**
+     * 遇到509时调用, 暂停所有请求
+     */
+    public void onLimitReached() {
+        pause();
+    }
+
+    /**
+     * 估算的当前用量: 最近一次查询的用量 + 之后累计的消耗
+     * @return 用量, 未知时为 -1
+     */
+    public long getEstimatedCurrent() {
+        final ImageLimit limit = this.limit;
+        return limit != null && limit.getCurrent() != null ? limit.getCurrent() + getCharged() : -1;
+    }
+
+    /**
+     * 获取限额, 超过查询间隔时重新查询, 同时只有一个查询.
+     * 查询失败时同样记录查询时间, 到下一个间隔之前不再查询
+     * @return future
+     */
+    private synchronized CompletableFuture<ImageLimit> refreshLimit() {
+        if (refreshing != null) {
+            return refreshing;
+        }
+        if (System.currentTimeMillis() - refreshedAt < refreshInterval) {
+            return CompletableFuture.completedFuture(limit);
+        }
+        final CompletableFuture<ImageLimit> future = api.getImageLimitAsync()
+                .handle((limit, e) -> refreshed(e == null ? limit : null, e == null));
+        if (!future.isDone()) {
+            refreshing = future;
+        }
+        return future;
+    }
+
+    /**
+     * 记录查询结果
+     * @param limit   查询到的限额
+     * @param success 查询是否成功, 失败时继续使用旧值
+     * @return 当前限额
+     */
+    private synchronized ImageLimit refreshed(ImageLimit limit, boolean success) {
+        if (success) {
+            this.limit = limit;
+            this.charged = 0;
+        }
+        this.refreshedAt = System.currentTimeMillis();
+        this.refreshing = null;
+        return this.limit;
+    }
+
+    /**
+     * 暂停, 并使缓存的限额失效, 暂停结束后重新查询
+     */
+    private synchronized void pause() {
+        this.pausedUntil = Math.max(pausedUntil, System.currentTimeMillis() + pauseMillis);
+        this.refreshedAt = 0;
+    }
+
+    private synchronized void charge(int cost) {
+        charged += cost;
+    }
+
+    private synchronized long getCharged() {
+        return charged;
+    }
+}
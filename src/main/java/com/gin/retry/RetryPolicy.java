@@ -0,0 +1,90 @@
+package com.gin.retry;
+
+import com.gin.utils.FutureUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.jsoup.HttpStatusException;
+
+import java.io.InterruptedIOException;
+import java.net.SocketException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 重试策略: 有限次数, 指数退避 + 随机抖动, 只重试可恢复的错误
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 11:05
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryPolicy {
+    /**
+     * 最大尝试次数(含第一次请求)
+     */
+    int maxAttempts = 5;
+    /**
+     * 第一次重试前的等待时间(毫秒)
+     */
+    long initialDelay = 500;
+    /**
+     * 最长等待时间(毫秒)
+     */
+    long maxDelay = 30000;
+    /**
+     * 每次重试等待时间的倍数
+     */
+    double multiplier = 2;
+    /**
+     * 抖动比例 0~1, 等待时间在 [delay*(1-jitter), delay] 之间随机
+     */
+    double jitter = 0.5;
+
+    /**
+     * 不重试
+     * @return 策略
+     */
+    public static RetryPolicy noRetry() {
+        final RetryPolicy policy = new RetryPolicy();
+        policy.setMaxAttempts(1);
+        return policy;
+    }
+
+    /**
+     * 第 attempt 次请求失败后, 重试前的等待时间
+     * @param attempt 已尝试次数, 从1开始
+     * @return 毫秒
+     */
+    public long getDelayMillis(int attempt) {
+        final double delay = Math.min(maxDelay, initialDelay * Math.pow(multiplier, attempt - 1));
+        final double random = ThreadLocalRandom.current().nextDouble();
+        return (long) (delay * (1 - jitter * random));
+    }
+
+    /**
+     * 是否还可以重试
+     * @param attempt 已尝试次数, 从1开始
+     * @param e       失败原因
+     * @return 是否重试
+     */
+    public boolean canRetry(int attempt, Throwable e) {
+        return attempt < maxAttempts && isRetryable(e);
+    }
+
+    /**
+     * 是否为可恢复的错误: 超时、连接异常、5xx 和 429
+     * @param e 异常
+     * @return 是否可重试
+     */
+    public boolean isRetryable(Throwable e) {
+        e = FutureUtils.unwrap(e);
+        if (e instanceof HttpStatusException) {
+            final int code = ((HttpStatusException) e).getStatusCode();
+            return code >= 500 || code == 429;
+        }
+        return e instanceof InterruptedIOException || e instanceof SocketException;
+    }
+}
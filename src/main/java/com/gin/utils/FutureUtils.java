@@ -0,0 +1,92 @@
+package com.gin.utils;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CompletableFuture 工具
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 10:20
+ */
+public class FutureUtils {
+    /**
+     * 延时任务线程, 只负责计时, 不执行耗时任务
+     */
+    private static final ScheduledThreadPoolExecutor SCHEDULER = new ScheduledThreadPoolExecutor(1, r -> {
+        final Thread thread = new Thread(r, "eh-utils-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // 取消的计时立即从队列中移除, 不等到期
+        SCHEDULER.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 创建一个在指定时间后完成的 future, 不阻塞线程. 提前取消 future 时同时取消计时
+     * @param millis 毫秒
+     * @return future
+     */
+    public static CompletableFuture<Void> delay(long millis) {
+        if (millis <= 0) {
+            return CompletableFuture.completedFuture(null);
+        }
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        final ScheduledFuture<?> task = SCHEDULER.schedule(() -> future.complete(null), millis, TimeUnit.MILLISECONDS);
+        future.whenComplete((v, e) -> task.cancel(false));
+        return future;
+    }
+
+    /**
+     * 创建一个以异常结束的 future
+     * @param e 异常
+     * @return future
+     */
+    public static <T> CompletableFuture<T> failed(Throwable e) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    /**
+     * 剥离 CompletionException / ExecutionException 包装, 返回原始异常
+     * @param e 异常
+     * @return 原始异常
+     */
+    public static Throwable unwrap(Throwable e) {
+        while ((e instanceof CompletionException || e instanceof ExecutionException) && e.getCause() != null) {
+            e = e.getCause();
+        }
+        return e;
+    }
+
+    /**
+     * 阻塞等待 future 完成, 将异常还原为 IOException 抛出
+     * @param future future
+     * @return 结果
+     */
+    public static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = unwrap(e);
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+}
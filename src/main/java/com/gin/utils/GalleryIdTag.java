@@ -1,5 +1,7 @@
 package com.gin.utils;
 
+import com.gin.entity.Gallery;
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
 import java.util.regex.Matcher;
@@ -12,8 +14,10 @@ import java.util.regex.Pattern;
  * @since : 2023/3/14 15:41
  */
 @Getter
+@EqualsAndHashCode
 public class GalleryIdTag {
     public static final Pattern URL_PATTERN = Pattern.compile("/g/(\\d+)/(.{10})");
+    public static final Pattern PAGE_PATTERN = Pattern.compile("[?&]p=(\\d+)");
 
     final long id;
     final String tag;
@@ -29,4 +33,31 @@ public class GalleryIdTag {
 
         }
     }
+
+    /**
+     * 解析id和tag
+     * @param url 地址
+     * @return 不是合法的地址时为 null
+     */
+    public static GalleryIdTag parse(String url) {
+        return URL_PATTERN.matcher(url).find() ? new GalleryIdTag(url) : null;
+    }
+
+    /**
+     * 画廊第一页的地址
+     * @return 地址
+     */
+    public String getFirstUrl() {
+        return Gallery.getAllPages(id, tag, 1).get(0);
+    }
+
+    /**
+     * 解析画廊页地址中的页码
+     * @param url 画廊页地址
+     * @return 页码, 从0开始, 没有页码参数时为0
+     */
+    public static int parsePage(String url) {
+        final Matcher matcher = PAGE_PATTERN.matcher(url);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
 }
@@ -0,0 +1,249 @@
+package com.gin.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 简单的JSON解析, 用于api.php的响应. 对象解析为 Map, 数组为 List, 数字为 Long 或 Double
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 22:30
+ */
+public class JsonParser {
+    private final String s;
+    private int pos;
+
+    private JsonParser(String s) {
+        this.s = s;
+    }
+
+    /**
+     * 解析JSON
+     * @param json JSON
+     * @return Map / List / String / Long / Double / Boolean / null
+     * @throws IOException 格式错误
+     */
+    public static Object parse(String json) throws IOException {
+        final JsonParser parser = new JsonParser(json);
+        final Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != json.length()) {
+            throw parser.error("多余的内容");
+        }
+        return value;
+    }
+
+    /**
+     * 转义为JSON字符串
+     * @param value 字符串
+     * @return 带引号的JSON字符串
+     */
+    public static String quote(String value) {
+        final StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    private Object readValue() throws IOException {
+        skipWhitespace();
+        if (pos >= s.length()) {
+            throw error("意外的结尾");
+        }
+        final char c = s.charAt(pos);
+        switch (c) {
+            case '{':
+                return readObject();
+            case '[':
+                return readArray();
+            case '"':
+                return readString();
+            case 't':
+                expect("true");
+                return Boolean.TRUE;
+            case 'f':
+                expect("false");
+                return Boolean.FALSE;
+            case 'n':
+                expect("null");
+                return null;
+            default:
+                return readNumber();
+        }
+    }
+
+    private Map<String, Object> readObject() throws IOException {
+        final Map<String, Object> map = new LinkedHashMap<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == '}') {
+            pos++;
+            return map;
+        }
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') {
+                throw error("需要属性名");
+            }
+            final String key = readString();
+            skipWhitespace();
+            if (peek() != ':') {
+                throw error("需要 ':'");
+            }
+            pos++;
+            map.put(key, readValue());
+            skipWhitespace();
+            final char c = next();
+            if (c == '}') {
+                return map;
+            }
+            if (c != ',') {
+                throw error("需要 ',' 或 '}'");
+            }
+        }
+    }
+
+    private List<Object> readArray() throws IOException {
+        final List<Object> list = new ArrayList<>();
+        pos++;
+        skipWhitespace();
+        if (peek() == ']') {
+            pos++;
+            return list;
+        }
+        while (true) {
+            list.add(readValue());
+            skipWhitespace();
+            final char c = next();
+            if (c == ']') {
+                return list;
+            }
+            if (c != ',') {
+                throw error("需要 ',' 或 ']'");
+            }
+        }
+    }
+
+    private String readString() throws IOException {
+        pos++;
+        final StringBuilder sb = new StringBuilder();
+        while (true) {
+            final char c = next();
+            if (c == '"') {
+                return sb.toString();
+            }
+            if (c != '\\') {
+                sb.append(c);
+                continue;
+            }
+            final char e = next();
+            switch (e) {
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'u':
+                    if (pos + 4 > s.length()) {
+                        throw error("不完整的转义");
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                    } catch (NumberFormatException ex) {
+                        throw error("错误的转义");
+                    }
+                    pos += 4;
+                    break;
+                default:
+                    sb.append(e);
+            }
+        }
+    }
+
+    private Object readNumber() throws IOException {
+        final int start = pos;
+        boolean decimal = false;
+        while (pos < s.length()) {
+            final char c = s.charAt(pos);
+            if (c == '.' || c == 'e' || c == 'E') {
+                decimal = true;
+            } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                break;
+            }
+            pos++;
+        }
+        final String number = s.substring(start, pos);
+        try {
+            return decimal ? (Object) Double.parseDouble(number) : (Object) Long.parseLong(number);
+        } catch (NumberFormatException e) {
+            throw error("错误的值: " + number);
+        }
+    }
+
+    private void expect(String word) throws IOException {
+        if (!s.startsWith(word, pos)) {
+            throw error("需要 " + word);
+        }
+        pos += word.length();
+    }
+
+    private void skipWhitespace() {
+        while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private char peek() throws IOException {
+        if (pos >= s.length()) {
+            throw error("意外的结尾");
+        }
+        return s.charAt(pos);
+    }
+
+    private char next() throws IOException {
+        final char c = peek();
+        pos++;
+        return c;
+    }
+
+    private IOException error(String message) {
+        return new IOException("JSON解析失败(位置 " + pos + "): " + message);
+    }
+}
@@ -0,0 +1,36 @@
+package com.gin.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 按序号顺序输出乱序完成的结果: 缓存先完成的结果, 直到它之前的结果全部完成
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/18 14:40
+ */
+public class OrderedEmitter<T> {
+    private final Consumer<T> consumer;
+    private final Map<Integer, T> pending = new HashMap<>();
+    /**
+     * 下一个要输出的序号
+     */
+    private int next;
+
+    public OrderedEmitter(Consumer<T> consumer) {
+        this.consumer = consumer;
+    }
+
+    /**
+     * 放入一个结果, 输出从 next 开始连续的结果
+     * @param index 序号, 从0开始
+     * @param t     结果
+     */
+    public synchronized void put(int index, T t) {
+        pending.put(index, t);
+        while (pending.containsKey(next)) {
+            consumer.accept(pending.remove(next++));
+        }
+    }
+}
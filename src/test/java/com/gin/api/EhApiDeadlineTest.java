@@ -0,0 +1,221 @@
+package com.gin.api;
+
+import com.gin.cache.GalleryPageCache;
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.entity.GalleryMetadata;
+import com.gin.entity.GalleryPage;
+import com.gin.entity.GalleryResult;
+import com.gin.entity.OriginalUrlResult;
+import com.gin.entity.Gallery;
+import com.gin.parser.JsoupPageParser;
+import com.gin.retry.RetryPolicy;
+import com.gin.utils.GalleryIdTag;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 到达截止时间时返回部分结果
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 13:00
+ */
+public class EhApiDeadlineTest {
+    private static final String CACHED = "https://exhentai.org/g/1/abcdef1234/";
+    private static final String SLOW = "https://exhentai.org/g/2/bcdef12345/";
+
+    private final MockWebServer server = new MockWebServer();
+    /**
+     * 客户端取消的请求
+     */
+    private final Semaphore cancelled = new Semaphore(0);
+    /**
+     * 第三批元数据的请求次数
+     */
+    private final AtomicInteger failingRequests = new AtomicInteger();
+    private EhApi api;
+    private EhClient client;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                final String body = request.getBody().readUtf8();
+                if ("/s/fast/1-1".equals(request.getPath())) {
+                    return new MockResponse().setBody("<div id=\"i1\"><h1>fast</h1><img id=\"img\" src=\"http://img/1.jpg\"></div><div id=\"i7\"></div>");
+                }
+                // 第三批元数据总是失败, 需要重试
+                if (body.contains("[51,")) {
+                    failingRequests.incrementAndGet();
+                    return new MockResponse().setResponseCode(503);
+                }
+                // 第二批元数据、画廊页和其余详情页都很慢
+                if (request.getPath().startsWith("/g/") || request.getPath().startsWith("/s/") || body.contains("[26,")) {
+                    return new MockResponse().setBody("{}").setHeadersDelay(3, TimeUnit.SECONDS);
+                }
+                final StringBuilder sb = new StringBuilder("{\"gmetadata\":[");
+                for (int i = 1; i <= 25; i++) {
+                    sb.append(i > 1 ? "," : "").append("{\"gid\":").append(i).append(",\"token\":\"t\"}");
+                }
+                return new MockResponse().setBody(sb.append("]}").toString());
+            }
+        });
+        server.start();
+        // 所有请求都发到本地服务
+        final OkHttpClient okHttpClient = new OkHttpClient.Builder().addInterceptor(chain -> {
+            final Request request = chain.request();
+            final HttpUrl url = request.url().newBuilder().scheme("http").host(server.getHostName()).port(server.getPort()).build();
+            return chain.proceed(request.newBuilder().url(url).build());
+        }).eventListener(new EventListener() {
+            @Override
+            public void canceled(@NotNull Call call) {
+                cancelled.release();
+            }
+        }).build();
+        client = new EhClient(okHttpClient, "", null);
+        api = new EhApi(client, new JsoupPageParser());
+        api.setApiUrl(server.url("/api.php").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void galleriesReturnPartialResults() throws Exception {
+        final GalleryPage cached = new GalleryPage("cached", null, 1, Collections.singletonList("1"), CACHED,
+                Collections.singletonList(new GalleryImageThumbnail("https://exhentai.org/s/a/1-1", "thumb", "001.jpg")));
+        api.setPageCache(new GalleryPageCache() {
+            @Override
+            public GalleryPage get(String url) {
+                return CACHED.equals(url) ? cached : null;
+            }
+
+            @Override
+            public void put(String url, GalleryPage page) {
+            }
+        });
+        final long start = System.nanoTime();
+        final List<GalleryResult> results = api.getGalleries(Arrays.asList(CACHED, SLOW), 300);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).getError() instanceof TimeoutException);
+        // 进行中的分页请求被取消
+        assertTrue(cancelled.tryAcquire(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void galleryFailsAtDeadline() throws Exception {
+        final long start = System.nanoTime();
+        try {
+            api.getGalleryAsync(SLOW, 300).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertTrue(cancelled.tryAcquire(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void refreshFailsAtDeadline() throws Exception {
+        final Gallery gallery = new Gallery();
+        gallery.setId(2);
+        gallery.setTag("bcdef12345");
+        gallery.setMaxPages(1);
+        try {
+            api.refreshGallery(gallery, 300);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getCause() instanceof TimeoutException);
+        }
+        assertTrue(cancelled.tryAcquire(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void originalUrlsReturnPartialResults() throws Exception {
+        final long start = System.nanoTime();
+        final List<OriginalUrlResult> results = api.getOriginalUrls(
+                Arrays.asList("https://exhentai.org/s/fast/1-1", "https://exhentai.org/s/slow/1-2"), 500);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertEquals("http://img/1.jpg", results.get(0).getOriginalUrl());
+        assertTrue(results.get(1).getError() instanceof TimeoutException);
+        assertTrue(cancelled.tryAcquire(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void metadataReturnsPartialResults() throws Exception {
+        final List<GalleryIdTag> galleries = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            galleries.add(new GalleryIdTag(String.format("https://exhentai.org/g/%d/%010d/", i, i)));
+        }
+        final long start = System.nanoTime();
+        final List<GalleryMetadata> result = api.getMetadata(galleries, 500);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        assertEquals(30, result.size());
+        for (int i = 0; i < 30; i++) {
+            assertEquals(i + 1, result.get(i).getId());
+            assertEquals(i < 25, result.get(i).isSuccess());
+        }
+        assertTrue(cancelled.tryAcquire(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void metadataDeadlineCancelsCallsAndRetries() throws Exception {
+        final RetryPolicy policy = new RetryPolicy();
+        policy.setInitialDelay(1000);
+        policy.setJitter(0);
+        client.setRetryPolicy(policy);
+        final List<GalleryIdTag> galleries = new ArrayList<>();
+        for (int i = 1; i <= 75; i++) {
+            galleries.add(new GalleryIdTag(String.format("https://exhentai.org/g/%d/%010d/", i, i)));
+        }
+        final List<GalleryMetadata> result = api.getMetadata(galleries, 500);
+        assertEquals(75, result.size());
+        assertTrue(result.get(0).isSuccess());
+        assertFalse(result.get(25).isSuccess());
+        assertFalse(result.get(50).isSuccess());
+        // 第二批进行中的请求被取消
+        assertTrue(cancelled.tryAcquire(1, TimeUnit.SECONDS));
+        // 第三批原定在 1 秒后重试, 截止后不再发出
+        Thread.sleep(1500);
+        assertEquals(1, failingRequests.get());
+    }
+
+    @Test
+    public void metadataCompletesBeforeDeadline() throws Exception {
+        final List<GalleryIdTag> galleries = new ArrayList<>();
+        for (int i = 1; i <= 25; i++) {
+            galleries.add(new GalleryIdTag(String.format("https://exhentai.org/g/%d/%010d/", i, i)));
+        }
+        final List<GalleryMetadata> result = api.getMetadata(galleries, 60_000);
+        assertEquals(25, result.size());
+        assertTrue(result.stream().allMatch(GalleryMetadata::isSuccess));
+    }
+}
@@ -0,0 +1,103 @@
+package com.gin.api;
+
+import com.gin.entity.GalleryMetadata;
+import com.gin.parser.JsoupPageParser;
+import com.gin.utils.GalleryIdTag;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 12:40
+ */
+public class EhApiMetadataTest {
+    private static final Pattern GID = Pattern.compile("\\[(\\d+),\"(\\w+)\"]");
+    /**
+     * 该画廊返回错误项
+     */
+    private static final long BAD_ID = 7;
+
+    private final MockWebServer server = new MockWebServer();
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    private EhApi api;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                final Matcher matcher = GID.matcher(request.getBody().readUtf8());
+                final StringBuilder sb = new StringBuilder("{\"gmetadata\":[");
+                int count = 0;
+                while (matcher.find()) {
+                    final long id = Long.parseLong(matcher.group(1));
+                    sb.append(count++ > 0 ? "," : "");
+                    if (id == BAD_ID) {
+                        sb.append("{\"gid\":").append(id).append(",\"error\":\"Key missing, or incorrect key provided.\"}");
+                    } else {
+                        sb.append("{\"gid\":").append(id).append(",\"token\":\"").append(matcher.group(2))
+                                .append("\",\"title\":\"title ").append(id).append("\",\"filecount\":\"").append(id).append("\"}");
+                    }
+                }
+                batchSizes.add(count);
+                return new MockResponse().setBody(sb.append("]}").toString());
+            }
+        });
+        server.start();
+        api = new EhApi(new EhClient(new OkHttpClient(), "", null), new JsoupPageParser());
+        api.setApiUrl(server.url("/api.php").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void batchesOf25WithErrorEntries() throws Exception {
+        final List<GalleryIdTag> galleries = new ArrayList<>();
+        for (int i = 1; i <= 30; i++) {
+            galleries.add(new GalleryIdTag(String.format("https://exhentai.org/g/%d/%010d/", i, i)));
+        }
+        // 重复的画廊只请求一次
+        galleries.add(galleries.get(0));
+
+        final List<GalleryMetadata> result = api.getMetadata(galleries);
+        assertEquals(2, server.getRequestCount());
+        Collections.sort(batchSizes);
+        assertEquals(5, (int) batchSizes.get(0));
+        assertEquals(EhApi.GDATA_BATCH_SIZE, (int) batchSizes.get(1));
+
+        assertEquals(30, result.size());
+        for (int i = 0; i < 30; i++) {
+            final GalleryMetadata metadata = result.get(i);
+            assertEquals(i + 1, metadata.getId());
+            if (metadata.getId() == BAD_ID) {
+                assertFalse(metadata.isSuccess());
+                assertNotNull(metadata.getError());
+            } else {
+                assertTrue(metadata.isSuccess());
+                assertEquals("title " + (i + 1), metadata.getTitle());
+                assertEquals(i + 1, metadata.getFileCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.gin.api;
+
+import com.gin.cache.ExpiringCache;
+import com.gin.entity.GalleryImagePage;
+import com.gin.identity.Identity;
+import com.gin.identity.IdentityPool;
+import com.gin.limiter.Priority;
+import com.gin.parser.JsoupPageParser;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 13:20
+ */
+public class EhApiOriginalUrlTest {
+    private final MockWebServer server = new MockWebServer();
+    /**
+     * 下一个 /s/limited 请求返回509
+     */
+    private final AtomicBoolean limited = new AtomicBoolean(true);
+    private EhClient client;
+    private EhApi api;
+
+    @Before
+    public void setUp() throws IOException {
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                if ("/slow".equals(request.getPath())) {
+                    return new MockResponse().setBody("slow").setHeadersDelay(300, TimeUnit.MILLISECONDS);
+                }
+                if ("/s/limited".equals(request.getPath()) && limited.compareAndSet(true, false)) {
+                    return new MockResponse().setBody("<div id=\"i1\"><h1>limited</h1><img id=\"img\" src=\""
+                            + GalleryImagePage.ERROR_509 + "\"></div><div id=\"i7\"></div>");
+                }
+                // 没有原图的详情页, 原图地址为预览图地址
+                final String id = request.getPath().substring(request.getPath().lastIndexOf('/') + 1);
+                return new MockResponse().setBody("<div id=\"i1\"><h1>" + id + "</h1><img id=\"img\" src=\"http://img/" + id
+                        + ".jpg\"></div><div id=\"i7\"></div>");
+            }
+        });
+        server.start();
+        // 同时只有一个请求, 其余按优先级排队
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(1);
+        client = new EhClient(new OkHttpClient.Builder().dispatcher(dispatcher).build(), "", null);
+        api = new EhApi(client, new JsoupPageParser());
+        api.setOriginalUrlCache(new ExpiringCache<>(100, 60_000));
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void interactiveLookupIsNotQueuedBehindBulk() throws Exception {
+        final CompletableFuture<String> blocker = client.getContextAsync(server.url("/slow").toString(), c -> c.getBodyString(), Priority.BULK);
+        final List<CompletableFuture<String>> bulk = new ArrayList<>();
+        for (int i = 1; i <= 4; i++) {
+            bulk.add(api.getOriginalUrlAsync(server.url("/s/" + i).toString(), Priority.BULK));
+        }
+        final CompletableFuture<String> interactive = api.getOriginalUrlAsync(server.url("/s/4").toString());
+        assertEquals("http://img/4.jpg", interactive.get(5, TimeUnit.SECONDS));
+        blocker.join();
+        for (int i = 1; i <= 4; i++) {
+            assertEquals("http://img/" + i + ".jpg", bulk.get(i - 1).join());
+        }
+        assertEquals("/slow", server.takeRequest().getPath());
+        // 交互查询的详情页请求与批量查询合并并排到最前
+        assertEquals("/s/4", server.takeRequest().getPath());
+        assertEquals(5, server.getRequestCount());
+        assertEquals("http://img/4.jpg", api.getOriginalUrlCache().getIfPresent(server.url("/s/4").toString()));
+    }
+
+    @Test
+    public void syncLookupRetriesLimitWithOtherIdentity() throws Exception {
+        final Identity a = new Identity("a", "a=1", null);
+        final Identity b = new Identity("b", "b=1", null);
+        final EhApi pooled = new EhApi(new EhClient(new OkHttpClient(), new IdentityPool().add(a).add(b)), new JsoupPageParser());
+        assertEquals("http://img/limited.jpg", pooled.getOriginalUrl(server.url("/s/limited").toString()));
+        // 第一次请求遇到509, 换另一个身份重试
+        final String first = server.takeRequest().getHeader("Cookie");
+        final String second = server.takeRequest().getHeader("Cookie");
+        assertNotEquals(first, second);
+        // 响应已关闭, 身份随后释放(在回调结束后)
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while ((a.getInFlight() > 0 || b.getInFlight() > 0) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, a.getInFlight());
+        assertEquals(0, b.getInFlight());
+    }
+}
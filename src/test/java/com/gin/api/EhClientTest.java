@@ -0,0 +1,178 @@
+package com.gin.api;
+
+import com.gin.entity.BatchResult;
+import com.gin.entity.ResponseContext;
+import com.gin.identity.Identity;
+import com.gin.identity.IdentityPool;
+import com.gin.metrics.EhMetrics;
+import okhttp3.Call;
+import okhttp3.Dispatcher;
+import okhttp3.EventListener;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 11:50
+ */
+public class EhClientTest {
+    private final MockWebServer server = new MockWebServer();
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void keepsCallerListenerAndDispatcher() throws Exception {
+        final AtomicInteger callStarts = new AtomicInteger();
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequestsPerHost(3);
+        final OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .eventListener(new EventListener() {
+                    @Override
+                    public void callStart(@NotNull Call call) {
+                        callStarts.incrementAndGet();
+                    }
+                })
+                .build();
+        final EhClient client = new EhClient(okHttpClient, "", null);
+        server.enqueue(new MockResponse().setBody("ok"));
+        assertEquals("ok", client.getContextAsync(server.url("/").toString(), c -> c.getBodyString()).join());
+        assertEquals(1, callStarts.get());
+        assertEquals(1, client.getMetrics().getCount(EhMetrics.REQUESTS));
+        assertEquals(3, client.getLimiter().getMaxLimit());
+    }
+
+    @Test
+    public void countsEachFailureOnce() {
+        final EhClient client = new EhClient(new OkHttpClient(), "", null);
+        server.enqueue(new MockResponse().setBody("ok"));
+        try {
+            client.getContextAsync(server.url("/").toString(), c -> {
+                throw new IOException("解析失败");
+            }).join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        assertEquals(1, client.getMetrics().getCount(EhMetrics.HANDLER_FAILURES));
+        assertEquals(0, client.getMetrics().getCount(EhMetrics.FAILURES));
+    }
+
+    @Test
+    public void coalescesAsyncRequests() throws Exception {
+        final EhClient client = new EhClient(new OkHttpClient(), "", null);
+        server.enqueue(new MockResponse().setBody("ok").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        final String url = server.url("/").toString();
+        final CompletableFuture<String> first = client.getContextAsync(url, c -> c.getBodyString());
+        final CompletableFuture<String> second = client.getContextAsync(url, c -> c.getBodyString());
+        assertEquals("ok", first.join());
+        assertEquals("ok", second.join());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void sharedCallIsCancelledOnlyByLastWaiter() throws Exception {
+        final AtomicInteger cancels = new AtomicInteger();
+        final OkHttpClient okHttpClient = new OkHttpClient.Builder()
+                .eventListener(new EventListener() {
+                    @Override
+                    public void canceled(@NotNull Call call) {
+                        cancels.incrementAndGet();
+                    }
+                })
+                .build();
+        final EhClient client = new EhClient(okHttpClient, "", null);
+        for (int i = 0; i < 3; i++) {
+            server.enqueue(new MockResponse().setBody("ok").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+        }
+        final String url = server.url("/").toString();
+
+        // 一个等待方取消, 其他等待方仍得到结果
+        final CompletableFuture<String> first = client.getContextAsync(url, c -> c.getBodyString());
+        final CompletableFuture<String> second = client.getContextAsync(url, c -> c.getBodyString());
+        first.cancel(true);
+        assertEquals("ok", second.join());
+        assertEquals(0, cancels.get());
+
+        // 所有等待方取消时取消请求, 之后的请求重新发出
+        final CompletableFuture<String> third = client.getContextAsync(url, c -> c.getBodyString());
+        final CompletableFuture<String> fourth = client.getContextAsync(url, c -> c.getBodyString());
+        third.cancel(true);
+        fourth.cancel(true);
+        assertEquals(1, cancels.get());
+        assertEquals("ok", client.getContextAsync(url, c -> c.getBodyString()).join());
+    }
+
+    @Test
+    public void batchReturnsPartialResultsAtDeadline() throws Exception {
+        final EhClient client = new EhClient(new OkHttpClient(), "", null);
+        server.setDispatcher(new okhttp3.mockwebserver.Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                final MockResponse response = new MockResponse().setBody("ok");
+                return "/slow".equals(request.getPath()) ? response.setHeadersDelay(3, TimeUnit.SECONDS) : response;
+            }
+        });
+        final String fast = server.url("/fast").toString();
+        final String slow = server.url("/slow").toString();
+        final BatchResult<String> result = client.getContext(Arrays.asList(fast, slow), c -> c.getBodyString(), 500);
+        assertEquals("ok", result.getSuccesses().get(fast));
+        assertTrue(result.getMissing().contains(slow));
+        assertFalse(result.isComplete());
+    }
+
+    @Test
+    public void syncRequestReadsBodyLazily() throws Exception {
+        final EhClient client = new EhClient(new OkHttpClient(), "", null);
+        // 响应体很慢, 只读取开头时不等待整个响应体
+        server.enqueue(new MockResponse().setBody("<html>" + new String(new char[1024]).replace('\0', ' '))
+                .throttleBody(64, 1, TimeUnit.SECONDS));
+        final long start = System.nanoTime();
+        try (ResponseContext context = client.getContext(server.url("/").toString());
+             Reader reader = context.getBodyReader()) {
+            final char[] head = new char[6];
+            assertEquals(6, reader.read(head));
+            assertEquals("<html>", new String(head));
+        }
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 3000);
+    }
+
+    @Test
+    public void releasesIdentityWhenBodyClosed() throws Exception {
+        final Identity identity = new Identity("a", "", null);
+        final EhClient client = new EhClient(new OkHttpClient(), new IdentityPool().add(identity));
+        server.enqueue(new MockResponse().setBody("image"));
+        final Response response = client.get(server.url("/").toString());
+        // 读取响应体期间仍计入进行中的请求
+        assertEquals(1, identity.getInFlight());
+        response.close();
+        assertEquals(0, identity.getInFlight());
+    }
+}
@@ -0,0 +1,56 @@
+package com.gin.api;
+
+import com.gin.cache.GalleryPageCache;
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.entity.GalleryPage;
+import com.gin.entity.GalleryResult;
+import com.gin.parser.JsoupPageParser;
+import okhttp3.OkHttpClient;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 12:20
+ */
+public class GalleryCrawlerTest {
+    private static final String BROKEN = "https://exhentai.org/g/1/abcdef1234/";
+    private static final String GOOD = "https://exhentai.org/g/2/bcdef12345/";
+
+    @Test
+    public void assemblyFailureIsRecordedAndCrawlCompletes() throws Exception {
+        final Map<String, GalleryPage> pages = new HashMap<>();
+        // 缩略图为 null, 组装画廊时失败
+        pages.put(BROKEN, new GalleryPage("broken", null, 1, Collections.singletonList("1"), BROKEN, null));
+        pages.put(GOOD, new GalleryPage("good", null, 1, Collections.singletonList("1"), GOOD,
+                Collections.singletonList(new GalleryImageThumbnail("https://exhentai.org/s/a/2-1", "thumb", "001.jpg"))));
+        final EhApi api = new EhApi(new EhClient(new OkHttpClient(), "", null), new JsoupPageParser());
+        api.setPageCache(new GalleryPageCache() {
+            @Override
+            public GalleryPage get(String url) {
+                return pages.get(url);
+            }
+
+            @Override
+            public void put(String url, GalleryPage page) {
+            }
+        });
+
+        final List<GalleryResult> results = api.getGalleriesAsync(Arrays.asList(BROKEN, GOOD), 2, null)
+                .get(5, TimeUnit.SECONDS);
+        assertEquals(2, results.size());
+        assertNotNull(results.get(0).getError());
+        assertNull(results.get(0).getGallery());
+        assertNull(results.get(1).getError());
+        assertEquals(1, results.get(1).getGallery().getThumbnails().size());
+    }
+}
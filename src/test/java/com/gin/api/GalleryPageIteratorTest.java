@@ -0,0 +1,69 @@
+package com.gin.api;
+
+import com.gin.parser.JsoupPageParser;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 12:10
+ */
+public class GalleryPageIteratorTest {
+    private final MockWebServer server = new MockWebServer();
+    private EhApi api;
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        api = new EhApi(new EhClient(new OkHttpClient(), "", null), new JsoupPageParser());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void firstPageFailureEndsIteration() {
+        server.enqueue(new MockResponse().setBody("<html></html>"));
+        final GalleryPageIterator iterator = api.streamGallery(server.url("/g/1/abcdef1234/").toString());
+        assertTrue(iterator.hasNext());
+        try {
+            iterator.next();
+            fail();
+        } catch (RuntimeException expected) {
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test
+    public void closeWhileNextIsWaiting() throws Exception {
+        server.enqueue(new MockResponse().setBody("<html></html>").setHeadersDelay(5, TimeUnit.SECONDS));
+        final GalleryPageIterator iterator = api.streamGallery(server.url("/g/1/abcdef1234/").toString());
+        final CompletableFuture<Object> next = CompletableFuture.supplyAsync(iterator::next);
+        Thread.sleep(200);
+        final long start = System.nanoTime();
+        iterator.close();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        try {
+            next.get(2, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof CancellationException);
+        }
+        assertFalse(iterator.hasNext());
+    }
+}
@@ -0,0 +1,67 @@
+package com.gin.cache;
+
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.entity.GalleryPage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 11:10
+ */
+public class DiskGalleryPageCacheTest {
+    private static final String URL = "https://e-hentai.org/g/123/abcdef1234/";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void deletesLeftoverTempFiles() throws Exception {
+        final Path dir = folder.getRoot().toPath();
+        final Path temp = dir.resolve("123_abcdef1234_0.bin.tmp");
+        Files.write(temp, new byte[]{1, 2, 3});
+        new DiskGalleryPageCache(dir, 60_000, 1 << 20);
+        assertFalse(Files.exists(temp));
+    }
+
+    @Test
+    public void concurrentPutsAndGets() throws Exception {
+        final DiskGalleryPageCache cache = new DiskGalleryPageCache(folder.getRoot().toPath(), 60_000, 1 << 20);
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final String url = URL + "?p=" + i;
+            futures.add(CompletableFuture.runAsync(() -> {
+                for (int j = 0; j < 20; j++) {
+                    cache.put(url, page(url));
+                    assertNotNull(cache.get(url));
+                }
+            }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        for (int i = 0; i < 8; i++) {
+            final String url = URL + "?p=" + i;
+            assertEquals(url, cache.get(url).getThumbnails().get(0).getImagePageUrl());
+        }
+        try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+            assertEquals(8, files.count());
+        }
+    }
+
+    private static GalleryPage page(String url) {
+        return new GalleryPage("title", "titleJp", 1, Arrays.asList("1", "2"), URL,
+                Collections.singletonList(new GalleryImageThumbnail(url, "thumb", "001.jpg")));
+    }
+}
@@ -0,0 +1,58 @@
+package com.gin.cache;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 11:20
+ */
+public class ExpiringCacheTest {
+
+    @Test
+    public void loaderRunsOutsideLock() {
+        final ExpiringCache<String, String> cache = new ExpiringCache<>(10, 60_000);
+        final CompletableFuture<String> future = cache.get("a", key -> {
+            assertFalse(Thread.holdsLock(cache));
+            return CompletableFuture.completedFuture("A");
+        });
+        assertEquals("A", future.join());
+        assertEquals("A", cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void cancelDoesNotAffectOtherCallers() {
+        final ExpiringCache<String, String> cache = new ExpiringCache<>(10, 60_000);
+        final CompletableFuture<String> load = new CompletableFuture<>();
+        final AtomicInteger loads = new AtomicInteger();
+        final CompletableFuture<String> first = cache.get("a", key -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        final CompletableFuture<String> second = cache.get("a", key -> {
+            loads.incrementAndGet();
+            return load;
+        });
+        assertEquals(1, loads.get());
+        first.cancel(true);
+        assertFalse(load.isCancelled());
+        load.complete("A");
+        assertEquals("A", second.join());
+        assertEquals("A", cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void failureIsNotCached() {
+        final ExpiringCache<String, String> cache = new ExpiringCache<>(10, 60_000);
+        final CompletableFuture<String> failed = cache.get("a", key -> {
+            throw new IllegalStateException("boom");
+        });
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("A", cache.get("a", key -> CompletableFuture.completedFuture("A")).join());
+    }
+}
@@ -0,0 +1,89 @@
+package com.gin.callback;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 12:50
+ */
+public class BoundedExecutorTest {
+
+    @Test
+    public void defaultExecutorsShareOnePool() throws Exception {
+        final CompletableFuture<ForkJoinPool> first = new CompletableFuture<>();
+        final CompletableFuture<ForkJoinPool> second = new CompletableFuture<>();
+        BoundedExecutor.createDefault().execute(() -> first.complete(ForkJoinTask.getPool()));
+        BoundedExecutor.createDefault().execute(() -> second.complete(ForkJoinTask.getPool()));
+        assertNotNull(first.get(5, TimeUnit.SECONDS));
+        assertSame(first.get(), second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void rejectsInsteadOfBlocking() throws Exception {
+        final ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            final BoundedExecutor executor = new BoundedExecutor(pool, 1);
+            final CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            try {
+                executor.execute(() -> {
+                });
+                fail();
+            } catch (RejectedExecutionException expected) {
+            }
+            // 被拒绝时在当前线程执行
+            final Thread caller = Thread.currentThread();
+            final Thread[] ran = new Thread[1];
+            BoundedExecutor.executeOrRun(executor, () -> ran[0] = Thread.currentThread());
+            assertSame(caller, ran[0]);
+
+            release.countDown();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(1, TimeUnit.SECONDS));
+            assertEquals(0, executor.getPending());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void headerOnlyHandlerSkipsBody() throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            server.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", "/next").setBody("body"));
+            final CompletableFuture<String> future = new CompletableFuture<>();
+            final ResponseHandler<String> handler = ResponseHandler.headerOnly(context -> {
+                assertNull(context.getBodyString());
+                return context.getRedirectUrl();
+            });
+            // 解析线程池总是拒绝, 只需要响应头的处理方法不会提交到线程池
+            final FutureCallback<String> callback = new FutureCallback<>(future, handler, command -> {
+                throw new RejectedExecutionException();
+            });
+            new OkHttpClient.Builder().followRedirects(false).build()
+                    .newCall(new Request.Builder().url(server.url("/")).build()).enqueue(callback);
+            assertEquals("/next", future.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
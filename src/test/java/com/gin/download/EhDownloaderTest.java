@@ -0,0 +1,178 @@
+package com.gin.download;
+
+import com.gin.api.EhApi;
+import com.gin.api.EhClient;
+import com.gin.entity.BatchResult;
+import com.gin.entity.CompactThumbnailList;
+import com.gin.entity.Gallery;
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.identity.Identity;
+import com.gin.identity.IdentityPool;
+import com.gin.parser.JsoupPageParser;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 11:00
+ */
+public class EhDownloaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final MockWebServer server = new MockWebServer();
+    private EhDownloader downloader;
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+        final EhClient client = new EhClient(new OkHttpClient(), "", null);
+        downloader = new EhDownloader(new EhApi(client, new JsoupPageParser()), 1);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        downloader.close();
+        server.shutdown();
+    }
+
+    @Test
+    public void followsRelativeRedirect() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", "../img/1.jpg"));
+        server.enqueue(new MockResponse().setBody("image"));
+        final Path target = folder.getRoot().toPath().resolve("1.jpg");
+        downloader.download(new DownloadTask(server.url("/fullimg/1/").toString(), target), new DownloadListener() {
+        });
+        assertEquals("image", read(target));
+        server.takeRequest();
+        assertEquals("/fullimg/img/1.jpg", server.takeRequest().getPath());
+    }
+
+    @Test
+    public void usesTaskIdentity() throws Exception {
+        final Identity a = new Identity("a", "a=1", null);
+        final Identity b = new Identity("b", "b=1", null);
+        final EhClient client = new EhClient(new OkHttpClient(), new IdentityPool().add(a).add(b));
+        final EhDownloader pinned = new EhDownloader(new EhApi(client, new JsoupPageParser()), 1);
+        server.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", "/img/5.jpg"));
+        server.enqueue(new MockResponse().setBody("image"));
+        final Path target = folder.getRoot().toPath().resolve("5.jpg");
+        try {
+            pinned.download(new DownloadTask(server.url("/fullimg/5/").toString(), target, b), new DownloadListener() {
+            });
+        } finally {
+            pinned.close();
+        }
+        assertEquals("image", read(target));
+        // 重定向后仍使用同一身份, 下载结束后释放
+        assertEquals("b=1", server.takeRequest().getHeader("Cookie"));
+        assertEquals("b=1", server.takeRequest().getHeader("Cookie"));
+        assertEquals(0, b.getInFlight());
+    }
+
+    @Test
+    public void failsWhenStillRedirected() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            server.enqueue(new MockResponse().setResponseCode(302).setHeader("Location", "/loop").setBody("redirect"));
+        }
+        final Path target = folder.getRoot().toPath().resolve("2.jpg");
+        try {
+            downloader.download(new DownloadTask(server.url("/loop").toString(), target), new DownloadListener() {
+            });
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("重定向次数过多"));
+        }
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    public void resumesWhenContentRangeMatches() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("3.jpg");
+        Files.write(target.resolveSibling("3.jpg" + EhDownloader.PART_SUFFIX), "abc".getBytes(StandardCharsets.UTF_8));
+        server.enqueue(new MockResponse().setResponseCode(206).setHeader("Content-Range", "bytes 3-5/6").setBody("def"));
+        downloader.download(new DownloadTask(server.url("/3.jpg").toString(), target), new DownloadListener() {
+        });
+        final RecordedRequest request = server.takeRequest();
+        assertEquals("bytes=3-", request.getHeader("Range"));
+        assertEquals("abcdef", read(target));
+    }
+
+    @Test
+    public void restartsWhenContentRangeDiffers() throws Exception {
+        final Path target = folder.getRoot().toPath().resolve("4.jpg");
+        final Path part = target.resolveSibling("4.jpg" + EhDownloader.PART_SUFFIX);
+        Files.write(part, "abc".getBytes(StandardCharsets.UTF_8));
+        server.enqueue(new MockResponse().setResponseCode(206).setHeader("Content-Range", "bytes 0-5/6").setBody("abcdef"));
+        try {
+            downloader.download(new DownloadTask(server.url("/4.jpg").toString(), target), new DownloadListener() {
+            });
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Content-Range"));
+        }
+        assertFalse(Files.exists(target));
+        assertFalse(Files.exists(part));
+    }
+
+    @Test
+    public void downloadsCompactGallery() throws Exception {
+        server.setDispatcher(new Dispatcher() {
+            @NotNull
+            @Override
+            public MockResponse dispatch(@NotNull RecordedRequest request) {
+                final String path = request.getPath();
+                if (path.startsWith("/s/")) {
+                    final String n = path.substring(path.lastIndexOf('-') + 1);
+                    return new MockResponse().setBody("<div id=\"i1\"><h1>image</h1><img id=\"img\" src=\""
+                            + server.url("/img/" + n + ".jpg") + "\"></div><div id=\"i7\"></div>");
+                }
+                return new MockResponse().setBody("image" + path.substring(5, path.indexOf('.')));
+            }
+        });
+        final List<GalleryImageThumbnail> thumbnails = new ArrayList<>();
+        thumbnails.add(new GalleryImageThumbnail(server.url("/s/a/1-1").toString(), "t1", "Page 1: 001.jpg"));
+        // 重名的文件加上序号
+        thumbnails.add(new GalleryImageThumbnail(server.url("/s/b/1-2").toString(), "t2", "Page 2: 001.jpg"));
+        thumbnails.add(new GalleryImageThumbnail(server.url("/s/c/1-3").toString(), "t3", "Page 3: 003.jpg"));
+        final Gallery gallery = new Gallery();
+        gallery.setThumbnails(thumbnails);
+        gallery.compact();
+        assertTrue(gallery.getThumbnails() instanceof CompactThumbnailList);
+        final Path dir = folder.getRoot().toPath();
+        // 已存在的文件跳过
+        Files.write(dir.resolve("003.jpg"), "old".getBytes(StandardCharsets.UTF_8));
+
+        final BatchResult<Path> result = downloader.downloadGallery(gallery, dir, new DownloadListener() {
+        }).get();
+        assertTrue(result.isSuccess());
+        assertEquals(2, result.getSuccesses().size());
+        assertEquals("image1", read(dir.resolve("001.jpg")));
+        assertEquals("image2", read(dir.resolve("001_2.jpg")));
+        assertEquals("old", read(dir.resolve("003.jpg")));
+        assertEquals(4, server.getRequestCount());
+    }
+
+    private static String read(Path path) throws IOException {
+        return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,42 @@
+package com.gin.entity;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 紧凑存储的字符串与原值一致
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 14:35
+ */
+public class CompactStringsTest {
+
+    @Test
+    public void roundTrip() {
+        final List<String> values = Arrays.asList("abc", "abd", null, "ab", "", "ab\uD83D\uDE00x", "ab\uD83D\uDE01y", "中文");
+        final CompactStrings strings = new CompactStrings(values);
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(values.get(i), strings.get(i));
+        }
+    }
+
+    @Test
+    public void keepsSurrogatePairs() {
+        // 公共前缀不切断代理对
+        final List<String> values = Arrays.asList("a\uD83D\uDE00", "a\uD83D\uDE01");
+        final CompactStrings strings = new CompactStrings(values);
+        assertEquals(values.get(0), strings.get(0));
+        assertEquals(values.get(1), strings.get(1));
+    }
+
+    @Test
+    public void allNull() {
+        final CompactStrings strings = new CompactStrings(Arrays.asList(null, null));
+        assertNull(strings.get(0));
+        assertNull(strings.get(1));
+    }
+}
@@ -0,0 +1,53 @@
+package com.gin.entity;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 紧凑存储的缩略图列表与原列表一致
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 14:30
+ */
+public class CompactThumbnailListTest {
+
+    @Test
+    public void roundTrip() {
+        final List<GalleryImageThumbnail> thumbnails = new ArrayList<>();
+        for (int i = 1; i <= 45; i++) {
+            thumbnails.add(new GalleryImageThumbnail(String.format("https://exhentai.org/s/%010x/2500000-%d", i * 7919L, i),
+                    "https://s.exhentai.org/t/" + i + ".webp", String.format("Page %d: 图片_%03d.jpg", i, i)));
+        }
+        // 缺少文件名和缩略图地址
+        thumbnails.add(new GalleryImageThumbnail("https://exhentai.org/s/0000000000/2500000-46", null, null));
+
+        final CompactThumbnailList compact = new CompactThumbnailList(thumbnails);
+        assertEquals(thumbnails.size(), compact.size());
+        for (int i = 0; i < thumbnails.size(); i++) {
+            final GalleryImageThumbnail expected = thumbnails.get(i);
+            final GalleryImageThumbnail actual = compact.get(i);
+            assertEquals(expected.getIndex(), actual.getIndex());
+            assertEquals(expected.getImagePageUrl(), actual.getImagePageUrl());
+            assertEquals(expected.getFilename(), actual.getFilename());
+            assertEquals(expected.getThumbnailUrl(), actual.getThumbnailUrl());
+            assertEquals(expected.getIndex(), compact.getIndex(i));
+            assertEquals(expected.getImagePageUrl(), compact.getImagePageUrl(i));
+        }
+        // 每次返回新对象, 修改不影响列表
+        assertNotSame(compact.get(0), compact.get(0));
+        compact.get(0).setFilename("changed");
+        assertEquals("图片_001.jpg", compact.get(0).getFilename());
+    }
+
+    @Test
+    public void emptyList() {
+        final CompactThumbnailList compact = new CompactThumbnailList(Collections.emptyList());
+        assertEquals(0, compact.size());
+        assertTrue(compact.isEmpty());
+    }
+}
@@ -0,0 +1,87 @@
+package com.gin.entity;
+
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.Reader;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 10:05
+ */
+public class ResponseContextTest {
+    /**
+     * 不规范的HTML, jsoup 重新输出后与原文不同
+     */
+    private static final String RAW = "<html><body><div id=gdt><P>Page&nbsp;1<br></div>";
+
+    private static Response response(String body) {
+        return new Response.Builder()
+                .request(new Request.Builder().url("https://e-hentai.org/g/1/abc/").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(body, MediaType.get("text/html; charset=utf-8")))
+                .build();
+    }
+
+    @Test
+    public void onlyDocumentIsKeptAfterParse() throws Exception {
+        final ResponseContext context = new ResponseContext(response(RAW));
+        final String html = context.getDocument().outerHtml();
+        assertNotEquals(RAW, html);
+        // 原文已丢弃, 由 Document 重新输出
+        assertEquals(html, context.getBodyString());
+        try (Reader reader = context.getBodyReader()) {
+            assertEquals(html, new BufferedReader(reader).lines().collect(Collectors.joining("\n")));
+        }
+        try {
+            context.copy();
+            fail();
+        } catch (IllegalStateException ignored) {
+        }
+    }
+
+    @Test
+    public void bodyStringIsRawWhenKept() throws Exception {
+        final ResponseContext context = new ResponseContext(response(RAW)).keepRawBody();
+        assertNotEquals(RAW, context.getDocument().outerHtml());
+        assertEquals(RAW, context.getBodyString());
+    }
+
+    @Test
+    public void bodyReaderIsRawWhenKept() throws Exception {
+        final ResponseContext context = new ResponseContext(response(RAW)).keepRawBody();
+        context.getDocument();
+        try (Reader reader = context.getBodyReader()) {
+            assertEquals(RAW, new BufferedReader(reader).lines().collect(Collectors.joining("\n")));
+        }
+    }
+
+    @Test
+    public void copyAfterParseWhenKept() throws Exception {
+        final ResponseContext context = new ResponseContext(response(RAW)).keepRawBody();
+        context.buffer();
+        context.getDocument();
+        final ResponseContext copy = context.copy();
+        assertEquals(RAW, copy.getBodyString());
+        assertEquals("gdt", copy.getDocument().getElementById("gdt").id());
+    }
+
+    @Test
+    public void headerOnlyHasNoBody() throws Exception {
+        final ResponseContext context = ResponseContext.headerOnly(response(RAW));
+        assertNull(context.getDocument());
+        assertNull(context.getBodyString());
+        assertNull(context.getBodyReader());
+    }
+}
@@ -0,0 +1,163 @@
+package com.gin.journal;
+
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.entity.GalleryPage;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 12:30
+ */
+public class CrawlJournalTest {
+    private static final String URL = "https://exhentai.org/g/1/abcdef1234/";
+    private static final String IMAGE_PAGE_URL = "https://exhentai.org/s/640d87e741/1-1";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordPageReplacesExistingEntry() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("journal.bin");
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            journal.recordPage(URL, page("old"));
+            journal.recordPage(URL, page("new"));
+            assertEquals("new", journal.getPage(URL).getTitle());
+            assertEquals("new", journal.getPages(1).get(0).getTitle());
+        }
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            assertEquals("new", journal.getPage(URL).getTitle());
+        }
+    }
+
+    @Test
+    public void entriesExpire() throws Exception {
+        try (CrawlJournal journal = new CrawlJournal(folder.getRoot().toPath().resolve("journal.bin"))) {
+            journal.recordPage(URL, page("title"));
+            journal.recordOriginalUrl(IMAGE_PAGE_URL, "https://example.org/1.jpg");
+            assertNotNull(journal.getPage(URL));
+            assertEquals("https://example.org/1.jpg", journal.getOriginalUrl(IMAGE_PAGE_URL));
+
+            journal.setPageTtl(1);
+            journal.setOriginalUrlTtl(1);
+            Thread.sleep(10);
+            assertNull(journal.getPage(URL));
+            assertTrue(journal.getPages(1).isEmpty());
+            assertNull(journal.getOriginalUrl(IMAGE_PAGE_URL));
+            assertTrue(journal.getOriginalUrls(1).isEmpty());
+
+            // 过期后重新记录
+            journal.recordOriginalUrl(IMAGE_PAGE_URL, "https://example.org/1.jpg");
+            journal.setOriginalUrlTtl(60_000);
+            assertEquals("https://example.org/1.jpg", journal.getOriginalUrl(IMAGE_PAGE_URL));
+        }
+    }
+
+    @Test
+    public void recoversFromTruncatedTail() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("journal.bin");
+        final long first;
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            journal.recordOriginalUrl(IMAGE_PAGE_URL, "https://example.org/1.jpg");
+            journal.sync();
+            first = Files.size(file);
+            journal.recordPage(URL, page("title"));
+        }
+        // 写到一半时崩溃
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(file) - 3);
+        }
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            assertEquals("https://example.org/1.jpg", journal.getOriginalUrl(IMAGE_PAGE_URL));
+            assertNull(journal.getPage(URL));
+            assertEquals(first, Files.size(file));
+            // 截断后继续追加
+            journal.recordPage(URL, page("again"));
+        }
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            assertEquals("again", journal.getPage(URL).getTitle());
+        }
+    }
+
+    @Test
+    public void recoversFromCorruptTail() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("journal.bin");
+        final long first;
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            journal.recordOriginalUrl(IMAGE_PAGE_URL, "https://example.org/1.jpg");
+            journal.sync();
+            first = Files.size(file);
+            journal.recordPage(URL, page("title"));
+        }
+        // 最后一条记录的内容损坏, 之后还有垃圾数据
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xff}), first + 10);
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5}), channel.size());
+        }
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            assertEquals("https://example.org/1.jpg", journal.getOriginalUrl(IMAGE_PAGE_URL));
+            assertNull(journal.getPage(URL));
+            assertEquals(first, Files.size(file));
+        }
+    }
+
+    @Test
+    public void compactsReplacedRecordsAtOpen() throws Exception {
+        final Path single = folder.getRoot().toPath().resolve("single.bin");
+        try (CrawlJournal journal = new CrawlJournal(single)) {
+            journal.recordPage(URL, page("new"));
+        }
+        final Path file = folder.getRoot().toPath().resolve("journal.bin");
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            journal.recordPage(URL, page("one"));
+            journal.recordPage(URL, page("two"));
+            journal.recordPage(URL, page("new"));
+        }
+        assertEquals(3 * Files.size(single), Files.size(file));
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            assertEquals(Files.size(single), Files.size(file));
+            assertEquals("new", journal.getPage(URL).getTitle());
+        }
+    }
+
+    @Test
+    public void compactsWhileRunning() throws Exception {
+        final Path file = folder.getRoot().toPath().resolve("journal.bin");
+        final Path target = folder.newFile("1.jpg").toPath();
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            journal.setCompactThreshold(1);
+            journal.recordDownload(target, 0);
+            journal.recordOriginalUrl(IMAGE_PAGE_URL, "https://example.org/1.jpg");
+            journal.setOriginalUrlTtl(1);
+            Thread.sleep(10);
+            for (int i = 0; i < 20; i++) {
+                journal.recordPage(URL, page("title" + i));
+            }
+            // 只保留每个地址最新的记录, 已过期的原图地址被去掉
+            assertTrue(Files.size(file) < 5 * 300);
+            assertNull(journal.getOriginalUrl(IMAGE_PAGE_URL));
+        }
+        try (CrawlJournal journal = new CrawlJournal(file)) {
+            journal.setOriginalUrlTtl(0);
+            assertEquals("title19", journal.getPage(URL).getTitle());
+            assertNull(journal.getOriginalUrl(IMAGE_PAGE_URL));
+            assertTrue(journal.isDownloaded(target));
+        }
+    }
+
+    static GalleryPage page(String title) {
+        return new GalleryPage(title, null, 1, Collections.singletonList("1"), URL,
+                Collections.singletonList(new GalleryImageThumbnail(IMAGE_PAGE_URL, "thumb", "001.jpg")));
+    }
+}
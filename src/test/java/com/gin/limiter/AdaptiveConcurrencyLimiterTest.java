@@ -0,0 +1,91 @@
+package com.gin.limiter;
+
+import com.gin.metrics.EhMetrics;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.jetbrains.annotations.NotNull;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 12:00
+ */
+public class AdaptiveConcurrencyLimiterTest {
+    private final MockWebServer server = new MockWebServer();
+    private final OkHttpClient client = new OkHttpClient();
+
+    @Before
+    public void setUp() throws IOException {
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void rateTokenIsTakenInDispatchOrder() throws Exception {
+        final RateLimiter rateLimiter = new RateLimiter();
+        rateLimiter.setDefaultRate(20);
+        rateLimiter.setDefaultBurst(1);
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new EhMetrics(), rateLimiter);
+        limiter.setInitialLimit(1);
+        limiter.setMaxLimit(1);
+        limiter.setInteractiveReserve(0);
+
+        final int bulk = 5;
+        final CountDownLatch latch = new CountDownLatch(bulk + 1);
+        for (int i = 0; i < bulk + 1; i++) {
+            server.enqueue(new MockResponse().setBody("ok"));
+        }
+        for (int i = 0; i < bulk; i++) {
+            limiter.enqueue(call("/bulk/" + i), counting(latch), Priority.BULK);
+        }
+        limiter.enqueue(call("/interactive"), counting(latch), Priority.INTERACTIVE);
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+
+        final List<String> paths = new ArrayList<>();
+        for (int i = 0; i < bulk + 1; i++) {
+            paths.add(server.takeRequest().getPath());
+        }
+        // 第一个批量请求已放行, 交互请求在其余批量请求之前取得令牌
+        assertEquals("/bulk/0", paths.get(0));
+        assertEquals("/interactive", paths.get(1));
+    }
+
+    private Call call(String path) {
+        return client.newCall(new Request.Builder().url(server.url(path)).build());
+    }
+
+    private static Callback counting(CountDownLatch latch) {
+        return new Callback() {
+            @Override
+            public void onFailure(@NotNull Call call, @NotNull IOException e) {
+                latch.countDown();
+            }
+
+            @Override
+            public void onResponse(@NotNull Call call, @NotNull Response response) {
+                response.close();
+                latch.countDown();
+            }
+        };
+    }
+}
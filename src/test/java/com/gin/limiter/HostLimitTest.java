@@ -0,0 +1,90 @@
+package com.gin.limiter;
+
+import com.gin.metrics.EhMetrics;
+import okhttp3.Call;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 13:40
+ */
+public class HostLimitTest {
+    private final OkHttpClient client = new OkHttpClient();
+    /**
+     * 放行顺序
+     */
+    private final List<String> started = new ArrayList<>();
+    /**
+     * 进行中请求的优先级
+     */
+    private final Deque<Priority> running = new ArrayDeque<>();
+    private HostLimit limit;
+
+    @Before
+    public void setUp() {
+        final AdaptiveConcurrencyLimiter config = new AdaptiveConcurrencyLimiter(new EhMetrics());
+        config.setInitialLimit(1);
+        config.setMaxLimit(1);
+        config.setInteractiveReserve(0);
+        config.setInteractiveBurst(2);
+        limit = new HostLimit(config);
+    }
+
+    @Test
+    public void interactiveFirstWithoutStarvingBulk() {
+        submit("blocker", Priority.BULK);
+        for (int i = 1; i <= 3; i++) {
+            submit("b" + i, Priority.BULK);
+        }
+        for (int i = 1; i <= 5; i++) {
+            submit("i" + i, Priority.INTERACTIVE);
+        }
+        assertEquals(8, limit.getQueued());
+        drainAll();
+        // 每连续放行2个交互请求后放行1个批量请求
+        assertEquals(Arrays.asList("blocker", "i1", "i2", "b1", "i3", "i4", "b2", "i5", "b3"), started);
+    }
+
+    @Test
+    public void promotedCallLeavesBulkQueue() {
+        submit("blocker", Priority.BULK);
+        submit("b1", Priority.BULK);
+        final Call promoted = submit("b2", Priority.BULK);
+        limit.promote(promoted);
+        assertEquals(1, limit.getQueuedBulk());
+        drainAll();
+        assertEquals(Arrays.asList("blocker", "b2", "b1"), started);
+    }
+
+    private Call submit(String name, Priority priority) {
+        final Call call = client.newCall(new Request.Builder().url("http://localhost/" + name).build());
+        limit.submit(call, () -> priority, p -> {
+            started.add(name);
+            running.add(p);
+        });
+        return call;
+    }
+
+    /**
+     * 依次结束进行中的请求, 直到没有排队的请求
+     */
+    private void drainAll() {
+        while (!running.isEmpty()) {
+            limit.release(System.nanoTime(), 1000, false, running.poll());
+        }
+        assertEquals(0, limit.getInFlight());
+        assertEquals(0, limit.getQueued());
+    }
+}
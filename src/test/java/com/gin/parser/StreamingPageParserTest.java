@@ -0,0 +1,111 @@
+package com.gin.parser;
+
+import com.gin.entity.GalleryImagePage;
+import com.gin.entity.GalleryImageThumbnail;
+import com.gin.entity.GalleryPage;
+import com.gin.entity.ResponseContext;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 流式解析的结果应与 jsoup 一致
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 10:30
+ */
+public class StreamingPageParserTest {
+    private static final String GALLERY_URL = "https://exhentai.org/g/2500001/a1b2c3d4e5/";
+    private static final String IMAGE_PAGE_URL = "https://exhentai.org/s/0a1b2c3d4e/2500001-2";
+
+    private final PageParser jsoup = new JsoupPageParser();
+    private final PageParser streaming = new StreamingPageParser();
+
+    @Test
+    public void galleryPagesMatchJsoup() throws IOException {
+        for (String name : new String[]{"gallery-small", "gallery-page"}) {
+            final String html = load(name);
+            assertGalleryPageEquals(name, jsoup.parseGalleryPage(context(GALLERY_URL, html)),
+                    streaming.parseGalleryPage(context(GALLERY_URL, html)));
+        }
+    }
+
+    @Test
+    public void imagePagesMatchJsoup() throws IOException {
+        for (String name : new String[]{"image-page-original", "image-page-no-original"}) {
+            final String html = load(name);
+            final GalleryImagePage expected = jsoup.parseImagePage(context(IMAGE_PAGE_URL, html));
+            final GalleryImagePage actual = streaming.parseImagePage(context(IMAGE_PAGE_URL, html));
+            assertEquals(name, expected.getTitle(), actual.getTitle());
+            assertEquals(name, expected.getSrc(), actual.getSrc());
+            assertEquals(name, expected.getRedirectUrl(), actual.getRedirectUrl());
+        }
+    }
+
+    /**
+     * jsoup 1.15 对任何元素的自闭合标记都立即关闭(已知元素同样如此), 之后的文本仍属于标题
+     */
+    @Test
+    public void selfClosingTagsMatchJsoup() throws IOException {
+        final String html = load("gallery-small")
+                .replace("<h1 id=\"gn\">", "<h1 id=\"gn\"><span/><script/><div/>")
+                .replace("<h1 id=\"gj\">", "<h1 id=\"gj\"><x-note/>");
+        final GalleryPage expected = jsoup.parseGalleryPage(context(GALLERY_URL, html));
+        final GalleryPage actual = streaming.parseGalleryPage(context(GALLERY_URL, html));
+        assertTrue(expected.getTitle().startsWith("[Circle Name"));
+        assertTrue(expected.getTitleJp().startsWith("["));
+        assertGalleryPageEquals("self-closing", expected, actual);
+    }
+
+    private static void assertGalleryPageEquals(String name, GalleryPage expected, GalleryPage actual) {
+        assertEquals(name, expected.getTitle(), actual.getTitle());
+        assertEquals(name, expected.getTitleJp(), actual.getTitleJp());
+        assertEquals(name, expected.getPage(), actual.getPage());
+        assertEquals(name, expected.getMaxPages(), actual.getMaxPages());
+        assertEquals(name, expected.getId(), actual.getId());
+        assertEquals(name, expected.getTag(), actual.getTag());
+        final List<GalleryImageThumbnail> e = expected.getThumbnails();
+        final List<GalleryImageThumbnail> a = actual.getThumbnails();
+        assertEquals(name, e.size(), a.size());
+        for (int i = 0; i < e.size(); i++) {
+            assertEquals(name, e.get(i).getIndex(), a.get(i).getIndex());
+            assertEquals(name, e.get(i).getImagePageUrl(), a.get(i).getImagePageUrl());
+            assertEquals(name, e.get(i).getFilename(), a.get(i).getFilename());
+            assertEquals(name, e.get(i).getThumbnailUrl(), a.get(i).getThumbnailUrl());
+        }
+    }
+
+    private static ResponseContext context(String url, String html) {
+        return new ResponseContext(new Response.Builder()
+                .request(new Request.Builder().url(url).build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(html, MediaType.get("text/html; charset=UTF-8")))
+                .build());
+    }
+
+    private static String load(String name) throws IOException {
+        try (InputStream in = StreamingPageParserTest.class.getResourceAsStream("/fixtures/" + name + ".html")) {
+            assertNotNull(name, in);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                out.write(buffer, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
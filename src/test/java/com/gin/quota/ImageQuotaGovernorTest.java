@@ -0,0 +1,42 @@
+package com.gin.quota;
+
+import com.gin.api.EhApi;
+import com.gin.api.EhClient;
+import com.gin.entity.ImageLimit;
+import com.gin.parser.JsoupPageParser;
+import okhttp3.OkHttpClient;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author : ginstone
+ * @version : v1.0.0
+ * @since : 2026/10/19 11:30
+ */
+public class ImageQuotaGovernorTest {
+
+    @Test
+    public void failedRefreshIsNotRetriedWithinInterval() {
+        final AtomicInteger queries = new AtomicInteger();
+        final EhApi api = new EhApi(new EhClient(new OkHttpClient(), "", null), new JsoupPageParser()) {
+            @Override
+            public CompletableFuture<ImageLimit> getImageLimitAsync() {
+                queries.incrementAndGet();
+                final CompletableFuture<ImageLimit> future = new CompletableFuture<>();
+                future.completeExceptionally(new IOException("home.php"));
+                return future;
+            }
+        };
+        final ImageQuotaGovernor governor = new ImageQuotaGovernor(api);
+        for (int i = 0; i < 5; i++) {
+            governor.acquire(1).join();
+        }
+        assertEquals(1, queries.get());
+        assertNull(governor.getLimit());
+    }
+}